@@ -29,6 +29,8 @@ public class BCConfig {
 
     public static boolean enable_tpx;
     public static boolean clientPermissionVerification;
+    public static boolean coalesceTileSync;
+    public static double processTickBudget;
 
     private static void loadServer() {
         serverTag = config.getCategory("Server");
@@ -44,6 +46,19 @@ public class BCConfig {
                         "I have added the ability to disable this feature because it seems in rare cases it blocks players who should have access and i have no idea why.")
                 .setDefaultBoolean(true)
                 .onSync((tag, type) -> clientPermissionVerification = tag.getBoolean());
+
+        serverTag.getValue("coalesceTileSync")
+                .setComment("When enabled, tile data updates are collected over the course of a server tick and sent as a single packet per chunk at the end of the tick.",
+                        "This significantly reduces the number of packets sent on servers with a large number of active tiles.")
+                .setDefaultBoolean(false)
+                .onSync((tag, type) -> coalesceTileSync = tag.getBoolean());
+
+        serverTag.getValue("processTickBudget")
+                .setComment("The maximum time in milliseconds Brandon's Core processes may use per server tick. 0 = unlimited.",
+                        "Once the budget is used, any remaining processes that are not critical are deferred to the next tick.",
+                        "This prevents large batches of work (e.g. mass teleports or structure placement) from spiking tick time.")
+                .setDefaultDouble(0)
+                .onSync((tag, type) -> processTickBudget = Math.max(0, tag.getDouble()));
     }
 
 
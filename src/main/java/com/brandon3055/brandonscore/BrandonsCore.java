@@ -14,6 +14,7 @@ import com.brandon3055.brandonscore.inventory.BlockToStackHelper;
 import com.brandon3055.brandonscore.lib.IEquipmentManager;
 import com.brandon3055.brandonscore.multiblock.MultiBlockManager;
 import com.brandon3055.brandonscore.network.BCoreNetwork;
+import com.brandon3055.brandonscore.network.TileSyncCoalescer;
 import com.brandon3055.brandonscore.worldentity.WorldEntityHandler;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.util.LazyOptional;
@@ -60,6 +61,7 @@ public class BrandonsCore {
 
         CapabilityOP.init();
         BCoreNetwork.init();
+        TileSyncCoalescer.init();
         BCConfig.load();
         ProcessHandler.init();
         MultiBlockManager.init();
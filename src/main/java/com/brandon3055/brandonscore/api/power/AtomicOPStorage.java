@@ -0,0 +1,281 @@
+package com.brandon3055.brandonscore.api.power;
+
+import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
+import com.brandon3055.brandonscore.lib.IChangeVersioned;
+import com.brandon3055.brandonscore.lib.IMCDataSerializable;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NumericTag;
+import net.minecraft.nbt.Tag;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe alternative to {@link OPStorage}. Energy can be inserted and extracted from any thread.
+ * <p>
+ * Energy is updated using CAS loops so no locking is required. The change listener is never called from a worker thread.
+ * Instead the first change after a notification schedules a single notification on the server thread (or the configured executor)
+ * so any number of changes between notifications result in one listener call.
+ */
+public class AtomicOPStorage implements INBTSerializable<CompoundTag>, IChangeVersioned, IMCDataSerializable, IOPStorage {
+    private final AtomicLong energy = new AtomicLong();
+    private final AtomicLong changeVersion = new AtomicLong();
+    private final AtomicBoolean notifyPending = new AtomicBoolean();
+    protected volatile long capacity;
+    protected volatile long maxReceive;
+    protected volatile long maxExtract;
+    protected volatile boolean allowExtract = true;
+    protected volatile boolean allowReceive = true;
+    protected Runnable changeListener;
+    protected Executor listenerExecutor = null;
+    protected volatile IOTrackerConcurrent ioTracker;
+
+    public AtomicOPStorage(long capacity) {
+        this(capacity, capacity, capacity);
+    }
+
+    public AtomicOPStorage(long capacity, long maxTransfer) {
+        this(capacity, maxTransfer, maxTransfer);
+    }
+
+    public AtomicOPStorage(long capacity, long maxReceive, long maxExtract) {
+        this.capacity = capacity;
+        this.maxReceive = maxReceive;
+        this.maxExtract = maxExtract;
+    }
+
+    /**
+     * @param changeListener Called on the server thread after the energy has changed.
+     */
+    public AtomicOPStorage setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+        return this;
+    }
+
+    /**
+     * @param executor The executor used to run the change listener. Defaults to the current server.
+     */
+    public AtomicOPStorage setListenerExecutor(Executor executor) {
+        this.listenerExecutor = executor;
+        return this;
+    }
+
+    public AtomicOPStorage setIOMode(boolean allowExtract, boolean allowReceive) {
+        this.allowExtract = allowExtract;
+        this.allowReceive = allowReceive;
+        return this;
+    }
+
+    @Override
+    public long receiveOP(long maxReceive, boolean simulate) {
+        if (!canReceive() || maxReceive <= 0) {
+            return 0;
+        }
+
+        long limit = Math.min(this.maxReceive(), maxReceive);
+        long current, received;
+        do {
+            current = energy.get();
+            received = Math.min(capacity - current, limit);
+            if (received <= 0) return 0;
+            if (simulate) return received;
+        } while (!energy.compareAndSet(current, current + received));
+
+        if (ioTracker != null) {
+            ioTracker.energyInserted(received);
+        }
+        markDirty();
+        return received;
+    }
+
+    @Override
+    public long extractOP(long maxExtract, boolean simulate) {
+        if (!canExtract() || maxExtract <= 0) {
+            return 0;
+        }
+
+        long limit = Math.min(this.maxExtract(), maxExtract);
+        long current, extracted;
+        do {
+            current = energy.get();
+            extracted = Math.min(current, limit);
+            if (extracted <= 0) return 0;
+            if (simulate) return extracted;
+        } while (!energy.compareAndSet(current, current - extracted));
+
+        if (ioTracker != null) {
+            ioTracker.energyExtracted(extracted);
+        }
+        markDirty();
+        return extracted;
+    }
+
+    @Override
+    public long modifyEnergyStored(long amount) {
+        long current, applied;
+        do {
+            current = energy.get();
+            applied = Math.max(-current, Math.min(amount, capacity - current));
+            if (applied == 0) return 0;
+        } while (!energy.compareAndSet(current, current + applied));
+
+        if (ioTracker != null) {
+            ioTracker.energyModified(applied);
+        }
+        markDirty();
+        return Math.abs(applied);
+    }
+
+    @Override
+    public long getOPStored() {
+        return energy.get();
+    }
+
+    @Override
+    public long getMaxOPStored() {
+        return capacity;
+    }
+
+    @Override
+    public boolean canExtract() {
+        return allowExtract && maxExtract() > 0;
+    }
+
+    @Override
+    public boolean canReceive() {
+        return allowReceive && maxReceive() > 0;
+    }
+
+    @Override
+    public long maxExtract() {
+        return maxExtract;
+    }
+
+    @Override
+    public long maxReceive() {
+        return maxReceive;
+    }
+
+    public AtomicOPStorage setCapacity(long capacity) {
+        this.capacity = capacity;
+        markDirty();
+        return this;
+    }
+
+    public AtomicOPStorage setMaxExtract(long maxExtract) {
+        this.maxExtract = maxExtract;
+        markDirty();
+        return this;
+    }
+
+    public AtomicOPStorage setMaxReceive(long maxReceive) {
+        this.maxReceive = maxReceive;
+        markDirty();
+        return this;
+    }
+
+    public AtomicOPStorage setMaxTransfer(long maxTransfer) {
+        this.maxReceive = this.maxExtract = maxTransfer;
+        markDirty();
+        return this;
+    }
+
+    /**
+     * The io tracker must be ticked from the server thread. See {@link IOTrackerConcurrent#run()}
+     */
+    public void setIOTracker(@Nullable IOTrackerConcurrent ioTracker) {
+        //Keeps the combined version increasing when the tracker is replaced.
+        IOTrackerConcurrent previous = this.ioTracker;
+        changeVersion.addAndGet((previous == null ? 0 : previous.getChangeVersion()) + 1);
+        this.ioTracker = ioTracker;
+    }
+
+    @Nullable
+    @Override
+    public IOInfo getIOInfo() {
+        return ioTracker;
+    }
+
+    /**
+     * Schedules a change notification unless one is already pending.
+     * If there is no executor (e.g. no server is running) the change version is still updated but the listener is not called,
+     * because the listener must never run on the thread that modified the energy.
+     */
+    public void markDirty() {
+        changeVersion.incrementAndGet();
+        if (changeListener == null) {
+            return;
+        }
+
+        Executor executor = listenerExecutor != null ? listenerExecutor : ServerLifecycleHooks.getCurrentServer();
+        if (executor == null || !notifyPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            notifyPending.set(false);
+            changeListener.run();
+        });
+    }
+
+    /**
+     * Safe to call from any thread. Changes to io rates are counted by the io tracker when it is ticked.
+     */
+    @Override
+    public long getChangeVersion() {
+        IOTrackerConcurrent tracker = ioTracker;
+        return tracker == null ? changeVersion.get() : changeVersion.get() + tracker.getChangeVersion();
+    }
+
+    @Override
+    public CompoundTag serializeNBT() {
+        CompoundTag compound = new CompoundTag();
+        long value = energy.get();
+        if (value > Integer.MAX_VALUE) {
+            compound.putLong("energy", value);
+        } else {
+            compound.putInt("energy", (int) value);
+        }
+        return compound;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag nbt) {
+        Tag tag = nbt.get("energy");
+        energy.set(tag instanceof NumericTag ? ((NumericTag) tag).getAsLong() : 0);
+        changeVersion.incrementAndGet();
+    }
+
+    @Override
+    public void serializeMCD(MCDataOutput output) {
+        output.writeVarLong(energy.get());
+        output.writeVarLong(capacity);
+        output.writeVarLong(maxReceive);
+        output.writeVarLong(maxExtract);
+        output.writeBoolean(ioTracker != null);
+        if (ioTracker != null) {
+            output.writeVarLong(ioTracker.currentInput());
+            output.writeVarLong(ioTracker.currentOutput());
+        }
+    }
+
+    @Override
+    public void deSerializeMCD(MCDataInput input) {
+        energy.set(input.readVarLong());
+        capacity = input.readVarLong();
+        maxReceive = input.readVarLong();
+        maxExtract = input.readVarLong();
+        if (input.readBoolean()) {
+            if (ioTracker == null) {
+                ioTracker = new IOTrackerConcurrent();
+            }
+            ioTracker.syncClientValues(input.readVarLong(), input.readVarLong());
+        } else {
+            ioTracker = null;
+        }
+    }
+}
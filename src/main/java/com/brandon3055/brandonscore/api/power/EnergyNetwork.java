@@ -0,0 +1,275 @@
+package com.brandon3055.brandonscore.api.power;
+
+import com.brandon3055.brandonscore.capability.CapabilityOP;
+import com.brandon3055.brandonscore.capability.OPWrappers;
+import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.energy.IEnergyStorage;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Distributes energy between a group of connected {@link IOPStorage}s in a single pass per tick.
+ * <p>
+ * Each tick every node is classified by its current {@link IOPStorage#canExtract()} / {@link IOPStorage#canReceive()} state:
+ * Providers (extract only), Consumers (receive only) and Buffers (both).
+ * Providers supply consumers first. Any surplus is stored in buffers and any deficit is supplied by buffers.
+ * Energy is split evenly between nodes, limited by what each node can accept or provide.
+ * <p>
+ * Each node is simulated once per phase so there are no chains of pairwise transfers.
+ * Sources are extracted from before sinks receive, so sinks only ever receive energy that actually left a source.
+ * Any energy the sinks reject is returned to the sources it came from.
+ * Storages are resolved once when they are added so there are no capability lookups while ticking.
+ * <p>
+ * The network is invalidated if any node's capability is invalidated. Whatever owns the network should then rebuild it.
+ * Throughput for the last tick is available via {@link #getIOInfo()}. Input is energy delivered to nodes, output is energy extracted from nodes.
+ */
+public class EnergyNetwork {
+    private final List<IOPStorage> nodes = new ArrayList<>();
+    private final Set<IOPStorage> nodeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Each optional gets a single listener for its whole lifetime, shared by every network that uses it.
+     * The listener only holds weak references to those networks so discarded networks can be collected.
+     */
+    private static final Map<LazyOptional<?>, Set<EnergyNetwork>> OPTIONAL_LISTENERS = new MapMaker().weakKeys().makeMap();
+    private final IOTracker ioTracker = new IOTracker();
+    private boolean valid = true;
+
+    /**
+     * Add a storage to this network.
+     * If this storage was provided by a {@link LazyOptional} use {@link #addNode(LazyOptional, IOPStorage)} so the network is invalidated when the capability is.
+     */
+    public void addNode(IOPStorage storage) {
+        if (nodeSet.add(storage)) {
+            nodes.add(storage);
+        }
+    }
+
+    public <T> void addNode(LazyOptional<T> optional, IOPStorage storage) {
+        addNode(storage);
+        Set<EnergyNetwork> networks = OPTIONAL_LISTENERS.get(optional);
+        if (networks == null) {
+            Set<EnergyNetwork> newSet = Collections.newSetFromMap(new WeakHashMap<>());
+            OPTIONAL_LISTENERS.put(optional, newSet);
+            optional.addListener(e -> {
+                newSet.forEach(EnergyNetwork::invalidate);
+                newSet.clear();
+            });
+            networks = newSet;
+        }
+        networks.add(this);
+    }
+
+    /**
+     * Resolves the OP (or FE) capability from the given tile and adds it to this network.
+     *
+     * @return true if the tile had an energy capability on the given side.
+     */
+    public boolean addNode(BlockEntity tile, Direction side) {
+        LazyOptional<IOPStorage> op = tile.getCapability(CapabilityOP.OP, side);
+        if (op.isPresent()) {
+            addNode(op, op.orElse(null));
+            return true;
+        }
+        LazyOptional<IEnergyStorage> fe = tile.getCapability(ForgeCapabilities.ENERGY, side);
+        if (fe.isPresent()) {
+            addNode(fe, new OPWrappers.FE(fe.orElse(null)));
+            return true;
+        }
+        return false;
+    }
+
+    public void removeNode(IOPStorage storage) {
+        if (nodeSet.remove(storage)) {
+            nodes.remove(storage);
+        }
+    }
+
+    public List<IOPStorage> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * @return false if the capability of one of this network's nodes has been invalidated.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public IOInfo getIOInfo() {
+        return ioTracker;
+    }
+
+    /**
+     * Builds a network by searching outwards from the given position through blocks accepted by the conduit predicate.
+     * Any non conduit tile adjacent to a conduit that exposes an energy capability is added to the network.
+     *
+     * @param level    The level.
+     * @param origin   The position to start searching from. Must be a conduit.
+     * @param conduit  Identifies the tiles that connect the network.
+     * @param maxNodes The maximum number of conduits to search. Non conduit positions do not count towards this limit.
+     * @return The new network.
+     */
+    public static EnergyNetwork discover(Level level, BlockPos origin, Predicate<BlockEntity> conduit, int maxNodes) {
+        EnergyNetwork network = new EnergyNetwork();
+        LongSet visited = new LongOpenHashSet();
+        Deque<BlockPos> queue = new ArrayDeque<>();
+        queue.add(origin);
+        visited.add(origin.asLong());
+        int conduits = 0;
+
+        while (!queue.isEmpty() && conduits++ < maxNodes) {
+            BlockPos pos = queue.poll();
+            for (Direction dir : Direction.values()) {
+                BlockPos next = pos.relative(dir);
+                if (!level.isLoaded(next) || !visited.add(next.asLong())) continue;
+                BlockEntity tile = level.getBlockEntity(next);
+                if (tile == null) continue;
+                if (conduit.test(tile)) {
+                    queue.add(next);
+                } else {
+                    network.addNode(tile, dir.getOpposite());
+                }
+            }
+        }
+        return network;
+    }
+
+    /**
+     * Perform the energy distribution for this tick. Should be called once per tick by whatever owns the network.
+     */
+    public void tick() {
+        ioTracker.run();
+        int count = nodes.size();
+        if (count < 2) return;
+
+        IOPStorage[] providers = new IOPStorage[count];
+        IOPStorage[] consumers = new IOPStorage[count];
+        IOPStorage[] buffers = new IOPStorage[count];
+        int providerCount = 0, consumerCount = 0, bufferCount = 0;
+        for (IOPStorage node : nodes) {
+            boolean extract = node.canExtract();
+            boolean receive = node.canReceive();
+            if (extract && receive) buffers[bufferCount++] = node;
+            else if (extract) providers[providerCount++] = node;
+            else if (receive) consumers[consumerCount++] = node;
+        }
+
+        long[] supply = simulate(providers, providerCount, true);
+        long[] demand = simulate(consumers, consumerCount, false);
+        long totalSupply = sum(supply);
+        long totalDemand = sum(demand);
+
+        //Providers to consumers
+        long delivered = transfer(providers, supply, providerCount, consumers, demand, consumerCount, Math.min(totalSupply, totalDemand));
+        if (bufferCount == 0) return;
+
+        if (totalSupply > delivered) {
+            //Surplus to buffers. Remaining supply per provider has already been reduced by transfer.
+            long[] bufferDemand = simulate(buffers, bufferCount, false);
+            transfer(providers, supply, providerCount, buffers, bufferDemand, bufferCount, Math.min(sum(supply), sum(bufferDemand)));
+        } else if (totalDemand > delivered) {
+            //Deficit from buffers
+            long[] bufferSupply = simulate(buffers, bufferCount, true);
+            transfer(buffers, bufferSupply, bufferCount, consumers, demand, consumerCount, Math.min(sum(bufferSupply), sum(demand)));
+        }
+    }
+
+    private static long[] simulate(IOPStorage[] storages, int count, boolean extract) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = extract ? storages[i].extractOP(Long.MAX_VALUE, true) : storages[i].receiveOP(Long.MAX_VALUE, true);
+        }
+        return values;
+    }
+
+    /**
+     * Extracts up to the given amount from the sources, delivers whatever was actually extracted to the sinks
+     * and returns anything the sinks rejected to the sources it came from.
+     * The supply and demand arrays are reduced by the amounts transferred.
+     * Energy is never created. It can only be lost if a source refuses to take back energy it just provided.
+     *
+     * @return The amount of energy transferred.
+     */
+    private long transfer(IOPStorage[] sources, long[] supply, int sourceCount, IOPStorage[] sinks, long[] demand, int sinkCount, long amount) {
+        if (amount <= 0) return 0;
+
+        long[] extract = distribute(supply, sourceCount, amount);
+        long[] provided = new long[sourceCount];
+        long extracted = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            if (extract[i] <= 0) continue;
+            provided[i] = sources[i].extractOP(extract[i], false);
+            supply[i] -= provided[i];
+            extracted += provided[i];
+        }
+        if (extracted <= 0) return 0;
+
+        long[] receive = distribute(demand, sinkCount, extracted);
+        long received = 0;
+        for (int i = 0; i < sinkCount; i++) {
+            if (receive[i] <= 0) continue;
+            long accepted = sinks[i].receiveOP(receive[i], false);
+            demand[i] -= accepted;
+            received += accepted;
+        }
+
+        long refund = extracted - received;
+        for (int i = 0; i < sourceCount && refund > 0; i++) {
+            if (provided[i] <= 0) continue;
+            long returned = sources[i].receiveOP(Math.min(refund, provided[i]), false);
+            supply[i] += returned;
+            refund -= returned;
+        }
+
+        //Anything still left in refund could not be returned and is the only energy that can be lost.
+        ioTracker.energyExtracted(received + refund);
+        ioTracker.energyInserted(received);
+        return received;
+    }
+
+    /**
+     * Splits the given amount as evenly as possible between all entries without exceeding the limit of any entry.
+     *
+     * @return The amount allocated to each entry.
+     */
+    private static long[] distribute(long[] limits, int count, long amount) {
+        long[] allocation = new long[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        IntArrays.quickSort(order, (a, b) -> Long.compare(limits[a], limits[b]));
+
+        long remaining = amount;
+        for (int i = 0; i < count && remaining > 0; i++) {
+            int index = order[i];
+            long share = remaining / (count - i);
+            if (share == 0) share = remaining;
+            long give = Math.min(limits[index], share);
+            allocation[index] = give;
+            remaining -= give;
+        }
+        return allocation;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+            if (total < 0) return Long.MAX_VALUE;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,229 @@
+package com.brandon3055.brandonscore.api.power;
+
+import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
+import com.brandon3055.brandonscore.lib.IMCDataSerializable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * An {@link IOTracker} that also records long term throughput history at multiple resolutions.
+ * See {@link Resolution} for the available tiers. Each tier is a ring buffer of input and output samples
+ * that grows as samples are recorded until it reaches its maximum size, so memory use is capped (roughly 100KB per history once full)
+ * regardless of how long the history runs. Tiers that never receive samples (e.g. on the client) are never allocated.
+ * Each sample in the second and minute tiers is the average OP/t over that period.
+ * <p>
+ * Like {@link IOTracker} this must be updated every tick via {@link #run()}.
+ * <p>
+ * When installed in an {@link OPStorage} this is synced as part of that storage's sync data. (See {@link OPStorage#serializeMCD(MCDataOutput)})
+ * The current averages are always sent. History tiers are only sent if enabled via {@link #setSyncedResolutions(Set)}
+ * because the full history is quite large. The tick tier in particular should only be synced on demand.
+ */
+public class IOHistory extends IOTracker implements IMCDataSerializable {
+
+    private final Tier[] tiers = new Tier[Resolution.values().length];
+    private Set<Resolution> syncedResolutions = EnumSet.noneOf(Resolution.class);
+
+    private long tickInput = 0;
+    private long tickOutput = 0;
+    private long secondInput = 0;
+    private long secondOutput = 0;
+    private long minuteInput = 0;
+    private long minuteOutput = 0;
+    private int historyTick = 0;
+
+    public IOHistory(int averageTime) {
+        super(averageTime);
+        for (Resolution resolution : Resolution.values()) {
+            tiers[resolution.ordinal()] = new Tier(resolution.samples);
+        }
+    }
+
+    public IOHistory() {
+        this(WINDOW_1S);
+    }
+
+    @Override
+    public void run() {
+        super.run();
+        historyTick++;
+        tiers[Resolution.TICK.ordinal()].push(tickInput, tickOutput);
+        secondInput = saturatedAdd(secondInput, tickInput);
+        secondOutput = saturatedAdd(secondOutput, tickOutput);
+        tickInput = tickOutput = 0;
+
+        if (historyTick % Resolution.SECOND.period == 0) {
+            long in = secondInput / Resolution.SECOND.period;
+            long out = secondOutput / Resolution.SECOND.period;
+            tiers[Resolution.SECOND.ordinal()].push(in, out);
+            minuteInput = saturatedAdd(minuteInput, secondInput);
+            minuteOutput = saturatedAdd(minuteOutput, secondOutput);
+            secondInput = secondOutput = 0;
+        }
+
+        if (historyTick % Resolution.MINUTE.period == 0) {
+            historyTick = 0;
+            tiers[Resolution.MINUTE.ordinal()].push(minuteInput / Resolution.MINUTE.period, minuteOutput / Resolution.MINUTE.period);
+            minuteInput = minuteOutput = 0;
+        }
+    }
+
+    @Override
+    public void energyInserted(long amount) {
+        super.energyInserted(amount);
+        tickInput = saturatedAdd(tickInput, amount);
+    }
+
+    @Override
+    public void energyExtracted(long amount) {
+        super.energyExtracted(amount);
+        tickOutput = saturatedAdd(tickOutput, amount);
+    }
+
+    /**
+     * @return The number of samples currently recorded at the given resolution.
+     */
+    public int getSampleCount(Resolution resolution) {
+        return tiers[resolution.ordinal()].count;
+    }
+
+    /**
+     * @param index The sample index where 0 is the oldest sample and {@link #getSampleCount(Resolution)} - 1 is the newest.
+     */
+    public long getInput(Resolution resolution, int index) {
+        Tier tier = tiers[resolution.ordinal()];
+        return tier.input[tier.indexOf(index)];
+    }
+
+    /**
+     * @param index The sample index where 0 is the oldest sample and {@link #getSampleCount(Resolution)} - 1 is the newest.
+     */
+    public long getOutput(Resolution resolution, int index) {
+        Tier tier = tiers[resolution.ordinal()];
+        return tier.output[tier.indexOf(index)];
+    }
+
+    /**
+     * Sets which history tiers will be included when this history is synced.
+     */
+    public void setSyncedResolutions(Set<Resolution> resolutions) {
+        this.syncedResolutions = resolutions.isEmpty() ? EnumSet.noneOf(Resolution.class) : EnumSet.copyOf(resolutions);
+    }
+
+    /**
+     * Writes the samples for the given resolution as CSV, oldest first.
+     * The first column is the age of the sample in ticks.
+     */
+    public void writeCSV(Resolution resolution, Writer writer) throws IOException {
+        writer.write("ticks_ago,input_op_per_tick,output_op_per_tick\n");
+        int count = getSampleCount(resolution);
+        for (int i = 0; i < count; i++) {
+            long age = (long) (count - i) * resolution.period;
+            writer.write(age + "," + getInput(resolution, i) + "," + getOutput(resolution, i) + "\n");
+        }
+    }
+
+    @Override
+    public void serializeMCD(MCDataOutput output) {
+        output.writeVarLong(currentInput());
+        output.writeVarLong(currentOutput());
+        int mask = 0;
+        for (Resolution resolution : syncedResolutions) {
+            mask |= 1 << resolution.ordinal();
+        }
+        output.writeByte(mask);
+        for (Resolution resolution : syncedResolutions) {
+            Tier tier = tiers[resolution.ordinal()];
+            output.writeVarInt(tier.count);
+            for (int i = 0; i < tier.count; i++) {
+                int index = tier.indexOf(i);
+                output.writeVarLong(tier.input[index]);
+                output.writeVarLong(tier.output[index]);
+            }
+        }
+    }
+
+    @Override
+    public void deSerializeMCD(MCDataInput input) {
+        syncClientValues(input.readVarLong(), input.readVarLong());
+        int mask = input.readByte();
+        for (Resolution resolution : Resolution.values()) {
+            if ((mask & (1 << resolution.ordinal())) == 0) continue;
+            Tier tier = tiers[resolution.ordinal()];
+            tier.clear();
+            int count = input.readVarInt();
+            for (int i = 0; i < count; i++) {
+                tier.push(input.readVarLong(), input.readVarLong());
+            }
+        }
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 && b > 0 ? Long.MAX_VALUE : sum;
+    }
+
+    public enum Resolution {
+        /** One sample per tick for 1 minute. */
+        TICK(1, 1200),
+        /** One sample per second for 1 hour. */
+        SECOND(20, 3600),
+        /** One sample per minute for 24 hours. */
+        MINUTE(1200, 1440);
+
+        /** The number of ticks covered by each sample. */
+        public final int period;
+        /** The maximum number of samples retained. */
+        public final int samples;
+
+        Resolution(int period, int samples) {
+            this.period = period;
+            this.samples = samples;
+        }
+    }
+
+    private static class Tier {
+        private static final int INITIAL_SIZE = 64;
+        private final int maxSize;
+        private long[] input = null;
+        private long[] output = null;
+        private int head = 0;
+        private int count = 0;
+
+        private Tier(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private void push(long in, long out) {
+            if (input == null) {
+                input = new long[Math.min(INITIAL_SIZE, maxSize)];
+                output = new long[input.length];
+            } else if (count == input.length && input.length < maxSize) {
+                //The buffer has not wrapped yet so head is 0 and the samples are already in order.
+                int size = Math.min(input.length * 2, maxSize);
+                input = Arrays.copyOf(input, size);
+                output = Arrays.copyOf(output, size);
+                head = count;
+            }
+            input[head] = in;
+            output[head] = out;
+            head = (head + 1) % input.length;
+            if (count < input.length) count++;
+        }
+
+        private int indexOf(int sample) {
+            if (sample < 0 || sample >= count) {
+                throw new IndexOutOfBoundsException("Sample " + sample + " out of bounds for length " + count);
+            }
+            return (head - count + sample + input.length) % input.length;
+        }
+
+        private void clear() {
+            head = count = 0;
+        }
+    }
+}
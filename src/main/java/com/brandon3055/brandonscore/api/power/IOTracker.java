@@ -1,31 +1,57 @@
 package com.brandon3055.brandonscore.api.power;
 
-import com.brandon3055.brandonscore.api.TimeKeeper;
 import net.minecraftforge.fml.util.thread.EffectiveSide;
 
 /**
  * Created by brandon3055 on 16/10/19.
  */
 public class IOTracker implements IOInfo, Runnable {
+    public static final int WINDOW_1S = 20;
+    public static final int WINDOW_10S = 200;
+    public static final int WINDOW_60S = 1200;
 
+    protected final RollingAverage input;
+    protected final RollingAverage output;
+    /**
+     * @deprecated The per tick values are now held by {@link #input} and {@link #output}.
+     * These reference the same arrays and must be treated as read only.
+     */
+    @Deprecated
     protected long[] inputArray;
+    /**
+     * @deprecated See {@link #inputArray}
+     */
+    @Deprecated
     protected long[] outputArray;
     protected long inputPerTick = 0;
     protected long outputPerTick = 0;
     protected int tick;
+    /**
+     * @deprecated No longer used.
+     */
+    @Deprecated
     protected int lastInputCheck = 0;
+    /**
+     * @deprecated No longer used.
+     */
+    @Deprecated
     protected int lastOutputCheck = 0;
+    protected long changeVersion = 0;
+    private long lastAverageIn = 0;
+    private long lastAverageOut = 0;
 
     /**
-     * @param averageTime Over how many ticks the IO data will be averaged
+     * @param averageTime Over how many ticks the IO data will be averaged. See {@link #WINDOW_1S}, {@link #WINDOW_10S}, {@link #WINDOW_60S}
      */
     public IOTracker(int averageTime) {
-        this.inputArray = new long[averageTime];
-        this.outputArray = new long[averageTime];
+        this.input = new RollingAverage(averageTime);
+        this.output = new RollingAverage(averageTime);
+        this.inputArray = input.getValues();
+        this.outputArray = output.getValues();
     }
 
     public IOTracker() {
-        this(20);
+        this(WINDOW_1S);
     }
 
     /**
@@ -34,28 +60,37 @@ public class IOTracker implements IOInfo, Runnable {
      */
     public void run() {
         tick++;
-        inputArray[tick % inputArray.length] = 0;
-        outputArray[tick % outputArray.length] = 0;
+        input.roll();
+        output.roll();
+        checkAverages();
     }
 
-    public void energyInserted(long amount) {
-        int i = tick % inputArray.length;
-        if (inputArray[i] == 0) {
-            inputArray[i] += amount;
-        } else {
-            long space = Long.MAX_VALUE - inputArray[i];
-            inputArray[i] += Math.min(space, amount);
+    /**
+     * Increments the change version if either average differs from the last check. Must be called after the averages are rolled.
+     */
+    protected void checkAverages() {
+        long in = input.average();
+        long out = output.average();
+        if (in != lastAverageIn || out != lastAverageOut) {
+            lastAverageIn = in;
+            lastAverageOut = out;
+            changeVersion++;
         }
     }
 
+    /**
+     * @return A counter that increases every time {@link #currentInput()} or {@link #currentOutput()} changes (server side).
+     */
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void energyInserted(long amount) {
+        input.add(amount);
+    }
+
     public void energyExtracted(long amount) {
-        int i = tick % inputArray.length;
-        if (outputArray[i] == 0) {
-            outputArray[i] += amount;
-        } else {
-            long space = Long.MAX_VALUE - outputArray[i];
-            outputArray[i] += Math.min(space, amount);
-        }
+        output.add(amount);
     }
 
     public void energyModified(long amount) {
@@ -75,26 +110,16 @@ public class IOTracker implements IOInfo, Runnable {
     public long currentInput() {
         if (EffectiveSide.get().isClient()) {
             return inputPerTick;
-        } else {
-            if (tick != lastInputCheck) {
-                lastInputCheck = tick;
-                inputPerTick = averageLongArray(inputArray, tick % inputArray.length);
-            }
-            return inputPerTick;
         }
+        return input.average();
     }
 
     @Override
     public long currentOutput() {
         if (EffectiveSide.get().isClient()) {
             return outputPerTick;
-        } else {
-            if (tick != lastOutputCheck) {
-                lastOutputCheck = tick;
-                outputPerTick = averageLongArray(outputArray, tick % inputArray.length);
-            }
-            return outputPerTick;
         }
+        return output.average();
     }
 
     //This gets a little inaccurate when dealing with extremely large numbers but for this use case it is more than accurate enough.
@@ -110,4 +135,4 @@ public class IOTracker implements IOInfo, Runnable {
         }
         return average + Math.round(remainder + 0.1F);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.brandon3055.brandonscore.api.power;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe io tracker for use with {@link AtomicOPStorage}.
+ * Energy can be recorded from any thread. {@link #run()} must be called once per tick from the server thread
+ * to roll the current tick's totals into the averaging window.
+ */
+public class IOTrackerConcurrent implements IOInfo, Runnable {
+
+    private final LongAdder currentIn = new LongAdder();
+    private final LongAdder currentOut = new LongAdder();
+    private final RollingAverage input;
+    private final RollingAverage output;
+    private volatile long inputPerTick = 0;
+    private volatile long outputPerTick = 0;
+    /**
+     * Only written by {@link #run()}
+     */
+    private volatile long changeVersion = 0;
+
+    /**
+     * @param averageTime Over how many ticks the IO data will be averaged
+     */
+    public IOTrackerConcurrent(int averageTime) {
+        //+1 because the slot being filled is excluded from the average and here it is always empty.
+        this.input = new RollingAverage(averageTime + 1);
+        this.output = new RollingAverage(averageTime + 1);
+    }
+
+    public IOTrackerConcurrent() {
+        this(IOTracker.WINDOW_1S);
+    }
+
+    public void energyInserted(long amount) {
+        currentIn.add(amount);
+    }
+
+    public void energyExtracted(long amount) {
+        currentOut.add(amount);
+    }
+
+    public void energyModified(long amount) {
+        if (amount > 0) {
+            energyInserted(amount);
+        } else {
+            energyExtracted(-amount);
+        }
+    }
+
+    @Override
+    public void run() {
+        input.add(currentIn.sumThenReset());
+        output.add(currentOut.sumThenReset());
+        input.roll();
+        output.roll();
+        long in = input.average();
+        long out = output.average();
+        if (in != inputPerTick || out != outputPerTick) {
+            inputPerTick = in;
+            outputPerTick = out;
+            changeVersion++;
+        }
+    }
+
+    /**
+     * @return A counter that increases every time {@link #run()} changes {@link #currentInput()} or {@link #currentOutput()}.
+     */
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void syncClientValues(long inputPerTick, long outputPerTick) {
+        this.inputPerTick = inputPerTick;
+        this.outputPerTick = outputPerTick;
+    }
+
+    @Override
+    public long currentInput() {
+        return inputPerTick;
+    }
+
+    @Override
+    public long currentOutput() {
+        return outputPerTick;
+    }
+}
@@ -7,12 +7,21 @@ import net.minecraftforge.fml.util.thread.EffectiveSide;
  * Created by brandon3055 on 16/10/19.
  * <p>
  * This io tracker does not need to be updated every tick in order to function.
- * However it does have increased overhead as a result.
+ * Instead it catches up on any ticks that have passed since it was last accessed.
  */
 public class IOTrackerSelfTimed extends IOTracker {
 
+    /**
+     * @deprecated No longer used internally. Still updated with the tick energy was last inserted.
+     */
+    @Deprecated
     protected int lastInputTick = 0;
+    /**
+     * @deprecated No longer used internally. Still updated with the tick energy was last extracted.
+     */
+    @Deprecated
     protected int lastOutputTick = 0;
+    private int lastUpdateTick = 0;
 
     /**
      * @param averageTime Over how many ticks the IO data will be averaged
@@ -22,75 +31,62 @@ public class IOTrackerSelfTimed extends IOTracker {
     }
 
     public IOTrackerSelfTimed() {
-        super(20);
+        super(WINDOW_1S);
     }
 
-    @Override
-    public void energyInserted(long amount) {
+    /**
+     * Rolls both averages forward by however many ticks have passed since the last update.
+     * Costs nothing if the tick has not changed and at most one full window if this tracker has been idle for a long time.
+     */
+    protected void updateTick() {
         int tick = TimeKeeper.getServerTick();
-        zeroSkippedTicks(inputArray, lastInputTick, tick);
-        if (tick != lastInputTick) {
-            lastInputTick = tick;
-            inputArray[tick % inputArray.length] = 0;
+        if (tick > lastUpdateTick) {
+            int elapsed = tick - lastUpdateTick;
+            input.roll(elapsed);
+            output.roll(elapsed);
+            checkAverages();
         }
-        inputArray[tick % inputArray.length] += amount;
+        lastUpdateTick = tick;
     }
 
     @Override
-    public void energyExtracted(long amount) {
-        int tick = TimeKeeper.getServerTick();
-        zeroSkippedTicks(outputArray, lastInputTick, tick);
-        if (tick != lastOutputTick) {
-            lastOutputTick = tick;
-            outputArray[tick % outputArray.length] = 0;
-        }
-        outputArray[tick % outputArray.length] += amount;
+    public void run() {}
+
+    @Override
+    public long getChangeVersion() {
+        updateTick();
+        return super.getChangeVersion();
     }
 
     @Override
-    public void energyModified(long amount) {
-        if (amount > 0) {
-            energyInserted(amount);
-        } else {
-            energyExtracted(amount * -1);
-        }
+    public void energyInserted(long amount) {
+        updateTick();
+        lastInputTick = lastUpdateTick;
+        super.energyInserted(amount);
     }
 
-    private void zeroSkippedTicks(long[] array, int lastUpdateTick, int currentTick) {
-        if (currentTick > lastUpdateTick) {
-            for (int i = 1; i < Math.min(currentTick - lastUpdateTick, array.length + 1); i++) {
-                array[(lastUpdateTick + i) % array.length] = 0;
-            }
-        }
+    @Override
+    public void energyExtracted(long amount) {
+        updateTick();
+        lastOutputTick = lastUpdateTick;
+        super.energyExtracted(amount);
     }
 
     @Override
     public long currentInput() {
         if (EffectiveSide.get().isClient()) {
             return inputPerTick;
-        } else {
-            int tick = TimeKeeper.getServerTick();
-            if (tick != lastInputCheck) {
-                zeroSkippedTicks(inputArray, lastInputTick, tick);
-                lastInputCheck = tick;
-                inputPerTick = averageLongArray(inputArray, tick % inputArray.length);
-            }
-            return inputPerTick;
         }
+        updateTick();
+        return input.average();
     }
 
     @Override
     public long currentOutput() {
         if (EffectiveSide.get().isClient()) {
             return outputPerTick;
-        } else {
-            int tick = TimeKeeper.getServerTick();
-            if (tick != lastOutputCheck) {
-                zeroSkippedTicks(outputArray, lastOutputTick, tick);
-                lastOutputCheck = tick;
-                outputPerTick = averageLongArray(outputArray, tick % inputArray.length);
-            }
-            return outputPerTick;
         }
+        updateTick();
+        return output.average();
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.brandon3055.brandonscore.api.power;
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import com.brandon3055.brandonscore.capability.CapabilityOP;
+import com.brandon3055.brandonscore.lib.IChangeVersioned;
 import com.brandon3055.brandonscore.lib.IMCDataSerializable;
 import com.brandon3055.brandonscore.lib.IValueHashable;
 import net.minecraft.nbt.CompoundTag;
@@ -22,7 +23,7 @@ import javax.annotation.Nullable;
  * When implementing this capability cap should be provided as both {@link net.minecraftforge.energy.CapabilityEnergy#ENERGY} and {@link CapabilityOP#OP}
  * So any mod that implements FE will find the FE cap and interact with it normally. However any mod that implements OP will fist check for the OP cap before falling back to RF.
  */
-public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<OPStorage.ComparableValue>, IMCDataSerializable, IOPStorage {
+public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<OPStorage.ComparableValue>, IChangeVersioned, IMCDataSerializable, IOPStorage {
     protected Runnable changeListener;
     protected long energy;
     protected long capacity;
@@ -31,6 +32,8 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
     protected IOTracker ioTracker;
     protected boolean allowExtract = true;
     protected boolean allowReceive = true;
+    private long changeVersion = 0;
+    private long lastEnergy, lastCapacity, lastMaxReceive, lastMaxExtract;
 
     public OPStorage(long capacity) {
         this(capacity, capacity);
@@ -183,6 +186,7 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
      */
     public OPStorage setCapacity(long capacity) {
         this.capacity = capacity;
+        changeVersion++;
         return this;
     }
 
@@ -194,6 +198,7 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
      */
     public OPStorage setMaxExtract(long maxExtract) {
         this.maxExtract = maxExtract;
+        changeVersion++;
         return this;
     }
 
@@ -205,11 +210,13 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
      */
     public OPStorage setMaxReceive(long maxReceive) {
         this.maxReceive = maxReceive;
+        changeVersion++;
         return this;
     }
 
     public OPStorage setMaxTransfer(long maxTransfer) {
         this.maxReceive = this.maxExtract = maxTransfer;
+        changeVersion++;
         return this;
     }
 
@@ -223,6 +230,7 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
     @Override
     public void deserializeNBT(CompoundTag nbt) {
         energy = smartRead("energy", nbt);
+        changeVersion++;
     }
 
     private void smartWrite(String name, long value, CompoundTag compound) {
@@ -242,6 +250,7 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
     }
 
     public void markDirty() {
+        changeVersion++;
         if (changeListener != null) changeListener.run();
     }
 
@@ -253,8 +262,13 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
         output.writeVarLong(maxExtract);
         output.writeBoolean(ioTracker != null);
         if (ioTracker != null) {
-            output.writeVarLong(ioTracker.currentInput());
-            output.writeVarLong(ioTracker.currentOutput());
+            output.writeBoolean(ioTracker instanceof IOHistory);
+            if (ioTracker instanceof IOHistory history) {
+                history.serializeMCD(output);
+            } else {
+                output.writeVarLong(ioTracker.currentInput());
+                output.writeVarLong(ioTracker.currentOutput());
+            }
         }
     }
 
@@ -264,11 +278,19 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
         capacity = input.readVarLong();
         maxReceive = input.readVarLong();
         maxExtract = input.readVarLong();
+        changeVersion++;
         if (input.readBoolean()) {
-            if (ioTracker == null) {
-                ioTracker = new IOTrackerSelfTimed();
+            if (input.readBoolean()) {
+                if (!(ioTracker instanceof IOHistory)) {
+                    ioTracker = new IOHistory();
+                }
+                ((IOHistory) ioTracker).deSerializeMCD(input);
+            } else {
+                if (ioTracker == null) {
+                    ioTracker = new IOTrackerSelfTimed();
+                }
+                ioTracker.syncClientValues(input.readVarLong(), input.readVarLong());
             }
-            ioTracker.syncClientValues(input.readVarLong(), input.readVarLong());
         } else if (ioTracker != null) {
             ioTracker = null;
         }
@@ -293,7 +315,26 @@ public class OPStorage implements INBTSerializable<CompoundTag>, IValueHashable<
         return false;
     }
 
+    /**
+     * Incremented by {@link #markDirty()} and the raw setters. The stored values are also compared against the values seen by the previous call,
+     * so subclasses that write the protected fields directly are still detected.
+     * Changes to the io tracker's averages are tracked by the io tracker itself.
+     */
+    @Override
+    public long getChangeVersion() {
+        if (energy != lastEnergy || capacity != lastCapacity || maxReceive != lastMaxReceive || maxExtract != lastMaxExtract) {
+            lastEnergy = energy;
+            lastCapacity = capacity;
+            lastMaxReceive = maxReceive;
+            lastMaxExtract = maxExtract;
+            changeVersion++;
+        }
+        return ioTracker == null ? changeVersion : changeVersion + ioTracker.getChangeVersion();
+    }
+
     public void setIOTracker(@Nullable IOTracker ioTracker) {
+        //Keeps the combined version increasing when the tracker is replaced.
+        changeVersion += (this.ioTracker == null ? 0 : this.ioTracker.getChangeVersion()) + 1;
         this.ioTracker = ioTracker;
     }
 
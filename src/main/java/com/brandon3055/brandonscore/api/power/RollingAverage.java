@@ -0,0 +1,82 @@
+package com.brandon3055.brandonscore.api.power;
+
+/**
+ * A ring buffer of per tick values that maintains a running sum so the average can be read in constant time.
+ * The slot for the current tick is excluded from the average until {@link #roll()} is called.
+ * <p>
+ * Individual values saturate at {@link Long#MAX_VALUE} and the running sum is held as a 128 bit value so it can not overflow.
+ */
+public class RollingAverage {
+    private final long[] values;
+    private int index = 0;
+    private long sumLow = 0;
+    private long sumHigh = 0;
+
+    /**
+     * @param window The number of slots including the current tick. Must be at least 2.
+     */
+    public RollingAverage(int window) {
+        this.values = new long[Math.max(2, window)];
+    }
+
+    /**
+     * Add to the value for the current tick.
+     */
+    public void add(long amount) {
+        long value = values[index] + amount;
+        values[index] = value < 0 && amount > 0 ? Long.MAX_VALUE : value;
+    }
+
+    /**
+     * Completes the current tick and starts a new one.
+     */
+    public void roll() {
+        addToSum(values[index]);
+        index = (index + 1) % values.length;
+        subtractFromSum(values[index]);
+        values[index] = 0;
+    }
+
+    /**
+     * Equivalent to calling {@link #roll()} the given number of times.
+     */
+    public void roll(int ticks) {
+        for (int i = 0; i < Math.min(ticks, values.length); i++) {
+            roll();
+        }
+    }
+
+    /**
+     * @return The average of all completed ticks in the window.
+     */
+    public long average() {
+        int count = values.length - 1;
+        if (sumHigh == 0 && sumLow >= 0) {
+            return sumLow / count;
+        }
+        double sum = sumHigh * 0x1p64 + (sumLow >>> 1) * 2D + (sumLow & 1);
+        return (long) Math.min(Long.MAX_VALUE, sum / count);
+    }
+
+    public int getWindow() {
+        return values.length;
+    }
+
+    /**
+     * @return The backing ring buffer. Must not be modified or the running sum will no longer match the values.
+     */
+    public long[] getValues() {
+        return values;
+    }
+
+    private void addToSum(long value) {
+        long low = sumLow + value;
+        if (Long.compareUnsigned(low, sumLow) < 0) sumHigh++;
+        sumLow = low;
+    }
+
+    private void subtractFromSum(long value) {
+        if (Long.compareUnsigned(sumLow, value) < 0) sumHigh--;
+        sumLow -= value;
+    }
+}
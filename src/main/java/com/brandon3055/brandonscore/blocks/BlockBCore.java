@@ -154,10 +154,17 @@ public class BlockBCore extends Block implements IBCoreBlock {
         return super.getDirectSignal(blockState, blockAccess, pos, side);
     }
 
+    /**
+     * Notifies the tile of the change. This is what keeps {@link TileBCore}'s neighbour energy cache up to date
+     * so subclasses that override this must call super.
+     */
     @Override
     public void neighborChanged(BlockState state, Level world, BlockPos pos, Block blockIn, BlockPos fromPos, boolean isMoving) {
         if (this instanceof EntityBlockBCore) {
             BlockEntity tile = world.getBlockEntity(pos);
+            if (tile instanceof TileBCore) {
+                ((TileBCore) tile).onNeighborBlockChanged(fromPos);
+            }
             if (tile instanceof IChangeListener) {
                 ((IChangeListener) tile).onNeighborChange(fromPos);
             }
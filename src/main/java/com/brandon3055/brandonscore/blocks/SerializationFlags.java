@@ -1,5 +1,7 @@
 package com.brandon3055.brandonscore.blocks;
 
+import com.brandon3055.brandonscore.lib.IChangeVersioned;
+import com.brandon3055.brandonscore.lib.IMCDataDeltaSerializable;
 import com.brandon3055.brandonscore.lib.IMCDataSerializable;
 import com.brandon3055.brandonscore.lib.IValueHashable;
 import net.minecraft.nbt.CompoundTag;
@@ -12,6 +14,11 @@ public class SerializationFlags<D extends INBTSerializable<CompoundTag>> {
     protected final String tagName;
     protected final D serializableInstance;
     protected Object lastData;
+    protected long lastVersion;
+    /**
+     * Only used for {@link IMCDataDeltaSerializable} data which tracks the version last sent to container listeners separately.
+     */
+    protected long lastContainerVersion;
 
     protected boolean saveTile = false;
     protected boolean saveItem = false;
@@ -23,8 +30,13 @@ public class SerializationFlags<D extends INBTSerializable<CompoundTag>> {
         this.serializableInstance = serializableInstance;
 
         if (serializableInstance instanceof IValueHashable) {
-            lastData = ((IValueHashable) serializableInstance).getValueHash();
             syncContainer = true;
+        }
+
+        if (serializableInstance instanceof IChangeVersioned versioned) {
+            lastVersion = lastContainerVersion = versioned.getChangeVersion();
+        } else if (serializableInstance instanceof IValueHashable) {
+            lastData = ((IValueHashable) serializableInstance).getValueHash();
         } else {
             lastData = serializableInstance.serializeNBT();
         }
@@ -78,8 +90,20 @@ public class SerializationFlags<D extends INBTSerializable<CompoundTag>> {
         return this;
     }
 
+    /**
+     * Change detection uses {@link IChangeVersioned} if implemented, then {@link IValueHashable}.
+     * If the data implements neither it must be serialized and compared every time this is called.
+     */
     protected boolean hasChanged(boolean reset) {
-        if (serializableInstance instanceof IValueHashable) {
+        if (serializableInstance instanceof IChangeVersioned versioned) {
+            long version = versioned.getChangeVersion();
+            if (version != lastVersion) {
+                if (reset) {
+                    lastVersion = version;
+                }
+                return true;
+            }
+        } else if (serializableInstance instanceof IValueHashable) {
             if (!((IValueHashable) serializableInstance).checkValueHash(lastData)) {
                 if (reset) {
                     lastData = ((IValueHashable) serializableInstance).getValueHash();
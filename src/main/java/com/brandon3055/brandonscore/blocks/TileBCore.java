@@ -7,12 +7,14 @@ import com.brandon3055.brandonscore.BrandonsCore;
 import com.brandon3055.brandonscore.api.IDataRetainingTile;
 import com.brandon3055.brandonscore.api.event.TileBCoreInitEvent;
 import com.brandon3055.brandonscore.api.power.IOPStorage;
+import com.brandon3055.brandonscore.api.power.IOHistory;
 import com.brandon3055.brandonscore.api.power.IOTracker;
 import com.brandon3055.brandonscore.api.power.OPStorage;
 import com.brandon3055.brandonscore.inventory.ContainerBCTile;
 import com.brandon3055.brandonscore.inventory.ContainerBCore;
 import com.brandon3055.brandonscore.inventory.TileItemStackHandler;
 import com.brandon3055.brandonscore.lib.IRSSwitchable;
+import com.brandon3055.brandonscore.lib.NeighborEnergyCache;
 import com.brandon3055.brandonscore.lib.IRSSwitchable.RSMode;
 import com.brandon3055.brandonscore.lib.datamanager.*;
 import com.brandon3055.brandonscore.network.BCoreNetwork;
@@ -65,19 +67,20 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
     protected boolean playerAccessTracking = false;
     protected TileCapabilityManager capManager = new TileCapabilityManager(this);
     protected TileDataManager<TileBCore> dataManager = new TileDataManager<>(this);
-    private Map<Integer, BiConsumer<MCDataInput, ServerPlayer>> serverPacketHandlers = new HashMap<>();
+    private Map<Integer, BiConsumer<MCDataInput, ServerPlayer>> serverPacketHandlers = Collections.emptyMap();
     protected Map<String, INBTSerializable<CompoundTag>> savedItemDataObjects = new HashMap<>();
     protected Map<String, INBTSerializable<CompoundTag>> savedDataObjects = new HashMap<>();
-    private Map<Integer, Consumer<MCDataInput>> clientPacketHandlers = new HashMap<>();
+    private Map<Integer, Consumer<MCDataInput>> clientPacketHandlers = Collections.emptyMap();
 
     private boolean debugOutputEnabled = false;
     private ManagedBool debugEnabled = null;
 
-    private List<Runnable> tickables = new ArrayList<>();
+    private List<Runnable> tickables = Collections.emptyList();
     private ManagedEnum<RSMode> rsControlMode = this instanceof IRSSwitchable ? register(new ManagedEnum<>("rs_mode", RSMode.ALWAYS_ACTIVE, SAVE_BOTH_SYNC_TILE, CLIENT_CONTROL)) : null;
     private ManagedBool rsPowered = this instanceof IRSSwitchable ? register(new ManagedBool("rs_powered", false, SAVE_NBT_SYNC_TILE, TRIGGER_UPDATE)) : null;
     private String customName = "";
-    private Set<Player> accessingPlayers = new HashSet<>();
+    private Set<Player> accessingPlayers = Collections.emptySet();
+    private NeighborEnergyCache energyCache = null;
     private int tick = 0;
 
     public TileBCore(BlockEntityType<?> type, BlockPos pos, BlockState state) {
@@ -107,7 +110,9 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
      * super.tick() must be called from your update method in order for Data Manager synchronization to work..
      */
     public void tick() {
-        tickables.forEach(Runnable::run);
+        for (int i = 0; i < tickables.size(); i++) {
+            tickables.get(i).run();
+        }
         detectAndSendChanges(false);
         tick++;
     }
@@ -124,6 +129,18 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
         }
     }
 
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        dataManager.cancelPendingTasks();
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        dataManager.cancelPendingTasks();
+    }
+
     public int getAccessDistanceSq() {
         return 64;
     }
@@ -234,6 +251,7 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
      * @param handler  the handler for this packet
      */
     public void setClientSidePacketHandler(int packetId, Consumer<MCDataInput> handler) {
+        if (clientPacketHandlers.isEmpty()) clientPacketHandlers = new HashMap<>();
         this.clientPacketHandlers.put(packetId, handler);
     }
 
@@ -244,6 +262,7 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
      * @param handler  the handler for this packet
      */
     public void setServerSidePacketHandler(int packetId, BiConsumer<MCDataInput, ServerPlayer> handler) {
+        if (serverPacketHandlers.isEmpty()) serverPacketHandlers = new HashMap<>();
         this.serverPacketHandlers.put(packetId, handler);
     }
 
@@ -268,6 +287,7 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
      * @param runnable The runnable to add
      */
     public <T extends Runnable> T addTickable(T runnable) {
+        if (tickables.isEmpty()) tickables = new ArrayList<>();
         tickables.add(runnable);
         return runnable;
     }
@@ -416,18 +436,33 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
         return i;
     }
 
+    /**
+     * Neighbouring energy storages are cached. See {@link NeighborEnergyCache}
+     */
     public long sendEnergyTo(long maxSend, Direction side) {
-        if (maxSend == 0) {
+        if (maxSend == 0 || level.isClientSide) {
             return 0;
         }
 
-        BlockEntity tile = level.getBlockEntity(worldPosition.relative(side));
-        if (tile != null) {
-            return EnergyUtils.insertEnergy(tile, maxSend, side.getOpposite(), false);
+        if (energyCache == null) {
+            energyCache = new NeighborEnergyCache(this);
+        }
+        IOPStorage storage = energyCache.getStorage(side);
+        if (storage != null && storage.canReceive()) {
+            return storage.receiveOP(maxSend, false);
         }
         return 0;
     }
 
+    /**
+     * Called by {@link BlockBCore} when a neighbouring block changes.
+     */
+    public void onNeighborBlockChanged(BlockPos neighbor) {
+        if (energyCache != null) {
+            energyCache.onNeighborChanged(neighbor);
+        }
+    }
+
     public static long sendEnergyTo(LevelReader world, BlockPos pos, long maxSend, Direction side) {
         if (maxSend == 0) {
             return 0;
@@ -458,6 +493,19 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
         storage.setIOTracker(addTickable(new IOTracker()));
     }
 
+    /**
+     * Same as {@link #installIOTracker(OPStorage)} but installs an {@link IOHistory} which also records long term throughput.
+     * The history can be exported with /bcore_util export_io_history
+     *
+     * @param storage The storage to add an IO history to.
+     * @return The installed history.
+     */
+    public IOHistory installIOHistory(OPStorage storage) {
+        IOHistory history = addTickable(new IOHistory());
+        storage.setIOTracker(history);
+        return history;
+    }
+
     /**
      * This method configures the specified slot in the specified item handler as an energy item slot.
      * The item in this slot will be automatically charged or discharged depending on whether chargeItem is true or false.
@@ -627,15 +675,22 @@ public class TileBCore extends BlockEntity implements IDataManagerProvider, IDat
      * playerAccessTracking must be enabled in this tile's constructor in order for this to work.
      */
     public Set<Player> getAccessingPlayers() {
+        if (accessingPlayers.isEmpty()) {
+            //The returned set has always been mutable so allocate it now rather than returning the shared empty set.
+            if (accessingPlayers == Collections.<Player>emptySet()) accessingPlayers = new HashSet<>();
+            return accessingPlayers;
+        }
         accessingPlayers.removeIf(e -> !(e.containerMenu instanceof ContainerBCTile<?> container) || container.tile != this); //Clean up set
         return accessingPlayers;
     }
 
     public void onPlayerOpenContainer(Player player) {
+        if (accessingPlayers == Collections.<Player>emptySet()) accessingPlayers = new HashSet<>();
         accessingPlayers.add(player);
     }
 
     public void onPlayerCloseContainer(Player player) {
+        if (accessingPlayers.isEmpty()) return;
         accessingPlayers.remove(player);
         accessingPlayers.removeIf(e -> !(e.containerMenu instanceof ContainerBCTile<?> container) || container.tile != this); //Clean up set
     }
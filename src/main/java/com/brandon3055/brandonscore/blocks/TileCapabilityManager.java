@@ -2,7 +2,9 @@ package com.brandon3055.brandonscore.blocks;
 
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.packet.PacketCustom;
+import com.brandon3055.brandonscore.api.TimeKeeper;
 import com.brandon3055.brandonscore.capability.CapabilityOP;
+import com.brandon3055.brandonscore.lib.IMCDataDeltaSerializable;
 import com.brandon3055.brandonscore.lib.IMCDataSerializable;
 import com.brandon3055.brandonscore.network.BCoreNetwork;
 import com.brandon3055.brandonscore.utils.DataUtils;
@@ -27,11 +29,20 @@ import java.util.function.Predicate;
  */
 public class TileCapabilityManager implements ICapabilityProvider {
 
-    private Map<Capability<?>, Map<Direction, LazyOptional<?>>> capabilityMap = new HashMap<>();
+    /**
+     * Capabilities are looked up by identity and stored per side using {@link #sideIndex(Direction)}
+     * so {@link #getCapability(Capability, Direction)} does not need to hash anything other than the capability.
+     */
+    private Map<Capability<?>, CapSides> capabilityMap = new IdentityHashMap<>();
     private Map<Object, Predicate<Direction>> capSideValidator = new HashMap<>();
 
     private Map<INBTSerializable<CompoundTag>, SerializationFlags<?>> serializableMap = new HashMap<>();
     private List<SerializationFlags<?>> indexedDataList = new ArrayList<>();
+    /**
+     * Data that syncs via both tile and container and was changed during a tile sync but has not yet been sent to container listeners.
+     */
+    private final BitSet pendingContainer = new BitSet();
+    private int lastListenerSync = -1;
     private TileBCore tile;
 
     public TileCapabilityManager(TileBCore tile) {
@@ -117,9 +128,12 @@ public class TileCapabilityManager implements ICapabilityProvider {
      * @param side        The side to bind to. (can be null)
      */
     public <T> void setSide(@Nonnull Capability<?> cap, @Nonnull T capInstance, @Nullable Direction side) {
-        Map<Direction, LazyOptional<?>> map = capabilityMap.computeIfAbsent(cap, c -> new HashMap<>());
-        LazyOptional<?> previous = map.get(side);
-        map.put(side, LazyOptional.of(() -> capInstance));
+        CapSides sides = capabilityMap.computeIfAbsent(cap, c -> new CapSides());
+        int index = sideIndex(side);
+        LazyOptional<?> previous = sides.optionals[index];
+        sides.optionals[index] = LazyOptional.of(() -> capInstance);
+        sides.instances[index] = capInstance;
+        sides.validators[index] = capSideValidator.get(capInstance);
 
         if (previous != null) {
             previous.invalidate();
@@ -133,10 +147,13 @@ public class TileCapabilityManager implements ICapabilityProvider {
      * @param side The side to remove from. (can be null)
      */
     public <T> void clearSide(@Nonnull Capability<?> cap, @Nullable Direction side) {
-        Map<Direction, LazyOptional<?>> map = capabilityMap.get(cap);
-        if (map != null) {
-            LazyOptional<?> previous = map.get(side);
-            map.remove(side);
+        CapSides sides = capabilityMap.get(cap);
+        if (sides != null) {
+            int index = sideIndex(side);
+            LazyOptional<?> previous = sides.optionals[index];
+            sides.optionals[index] = null;
+            sides.instances[index] = null;
+            sides.validators[index] = null;
 
             if (previous != null) {
                 previous.invalidate();
@@ -148,15 +165,19 @@ public class TileCapabilityManager implements ICapabilityProvider {
     @Override
     @SuppressWarnings("unchecked")
     public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, @Nullable Direction side) {
-        Map<Direction, LazyOptional<?>> map = capabilityMap.get(cap);
-        if (map == null && cap == ForgeCapabilities.ENERGY) {
-            map = capabilityMap.get(CapabilityOP.OP);
+        CapSides sides = capabilityMap.get(cap);
+        if (sides == null && cap == ForgeCapabilities.ENERGY) {
+            sides = capabilityMap.get(CapabilityOP.OP);
         }
 
-        if (map != null && map.containsKey(side)) {
-            LazyOptional<T> optional = (LazyOptional<T>) map.get(side);
-            if (optional.filter(o -> capSideValidator.getOrDefault(o, d -> true).test(side)).isPresent()) {
-                return optional;
+        if (sides != null) {
+            int index = sideIndex(side);
+            LazyOptional<?> optional = sides.optionals[index];
+            if (optional != null && optional.isPresent()) {
+                Predicate<Direction> validator = sides.validators[index];
+                if (validator == null || validator.test(side)) {
+                    return (LazyOptional<T>) optional;
+                }
             }
         }
 
@@ -165,7 +186,11 @@ public class TileCapabilityManager implements ICapabilityProvider {
 
     //Should be called by the tile's remove method to invalidate capabilities when the tile is removed.
     public void invalidate() {
-        capabilityMap.values().forEach(map -> map.values().forEach(LazyOptional::invalidate));
+        for (CapSides sides : capabilityMap.values()) {
+            for (LazyOptional<?> optional : sides.optionals) {
+                if (optional != null) optional.invalidate();
+            }
+        }
     }
 
     /**
@@ -179,6 +204,50 @@ public class TileCapabilityManager implements ICapabilityProvider {
      */
     public void setCapSideValidator(Object capabilityInstance, Predicate<Direction> predicate) {
         capSideValidator.put(capabilityInstance, predicate);
+        for (CapSides sides : capabilityMap.values()) {
+            for (int i = 0; i < sides.instances.length; i++) {
+                if (capabilityInstance.equals(sides.instances[i])) {
+                    sides.validators[i] = predicate;
+                }
+            }
+        }
+        revalidate(capabilityInstance);
+    }
+
+    /**
+     * Must be called when the result of a side validator for this capability instance may have changed.
+     * Invalidates the capability on every side it is bound to and replaces it with a new LazyOptional, so anything that cached the old one
+     * (e.g. {@link com.brandon3055.brandonscore.lib.NeighborEnergyCache}) looks it up again.
+     *
+     * @param capabilityInstance the capability instance (the same instance provided to the add method)
+     */
+    public void revalidate(Object capabilityInstance) {
+        for (CapSides sides : capabilityMap.values()) {
+            for (int i = 0; i < sides.instances.length; i++) {
+                Object instance = sides.instances[i];
+                if (capabilityInstance.equals(instance)) {
+                    LazyOptional<?> previous = sides.optionals[i];
+                    sides.optionals[i] = LazyOptional.of(() -> instance);
+                    if (previous != null) {
+                        previous.invalidate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the given side in a {@link CapSides} array. The null side is stored after the 6 directions.
+     */
+    private static int sideIndex(@Nullable Direction side) {
+        return side == null ? 6 : side.ordinal();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class CapSides {
+        private final LazyOptional<?>[] optionals = new LazyOptional[7];
+        private final Object[] instances = new Object[7];
+        private final Predicate<Direction>[] validators = new Predicate[7];
     }
 
     //Serialization
@@ -205,43 +274,125 @@ public class TileCapabilityManager implements ICapabilityProvider {
     //Synchronization
 
     public void detectAndSendChanges() {
+        List<Integer> changed = null;
+        long[] sinceVersions = null;
         for (int i = 0; i < indexedDataList.size(); i++) {
             SerializationFlags<?> helper = indexedDataList.get(i);
+            long since = helper.lastVersion;
             if (helper.syncTile && helper.hasChanged(true)) {
-                PacketCustom packet = createCapPacket(helper, i);
-                packet.sendToChunk(tile);
+                if (changed == null) changed = new ArrayList<>();
+                changed.add(i);
+                if (helper.getData() instanceof IMCDataDeltaSerializable) {
+                    if (sinceVersions == null) sinceVersions = newSinceArray();
+                    sinceVersions[i] = since;
+                } else if (helper.syncContainer) {
+                    //The change has been consumed so make sure container listeners still receive it.
+                    pendingContainer.set(i);
+                }
             }
         }
+        if (changed != null) {
+            createCapPacket(changed, sinceVersions).sendToChunk(tile);
+        }
     }
 
+    /**
+     * All changes are written to a single packet which is then sent to every listener.
+     * When multiple players have the container open only the first call each tick does anything.
+     */
     public void detectAndSendChangesToListeners(Collection<Player> listeners) {
+        int tick = TimeKeeper.getServerTick();
+        if (tick == lastListenerSync) return;
+        lastListenerSync = tick;
+
+        List<Integer> changed = null;
+        long[] sinceVersions = null;
         for (int i = 0; i < indexedDataList.size(); i++) {
             SerializationFlags<?> helper = indexedDataList.get(i);
-            if (helper.syncContainer && helper.hasChanged(true)) {
-                PacketCustom packet = createCapPacket(helper, i);
-                DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> packet.sendToPlayer((ServerPlayer) p));
+            if (!helper.syncContainer) continue;
+            if (helper.getData() instanceof IMCDataDeltaSerializable delta) {
+                long version = delta.getChangeVersion();
+                if (version != helper.lastContainerVersion) {
+                    if (changed == null) changed = new ArrayList<>();
+                    if (sinceVersions == null) sinceVersions = newSinceArray();
+                    changed.add(i);
+                    sinceVersions[i] = helper.lastContainerVersion;
+                    helper.lastContainerVersion = version;
+                }
+            } else if (helper.hasChanged(true) | pendingContainer.get(i)) {
+                if (changed == null) changed = new ArrayList<>();
+                changed.add(i);
             }
         }
+        pendingContainer.clear();
+        if (changed != null) {
+            PacketCustom packet = createCapPacket(changed, sinceVersions);
+            DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> packet.sendToPlayer((ServerPlayer) p));
+        }
+    }
+
+    /**
+     * Sends all container synced data to a player that has just opened the container.
+     */
+    public void forcePlayerSync(ServerPlayer player) {
+        List<Integer> toSync = new ArrayList<>();
+        for (int i = 0; i < indexedDataList.size(); i++) {
+            if (indexedDataList.get(i).syncContainer) toSync.add(i);
+        }
+        if (!toSync.isEmpty()) {
+            createCapPacket(toSync, null).sendToPlayer(player);
+        }
     }
 
-    private PacketCustom createCapPacket(SerializationFlags<?> helper, int index) {
+    private long[] newSinceArray() {
+        long[] sinceVersions = new long[indexedDataList.size()];
+        Arrays.fill(sinceVersions, -1);
+        return sinceVersions;
+    }
+
+    /**
+     * Format: [pos][varInt count] then [varInt index][data] for each index.
+     * {@link IMCDataDeltaSerializable} data is prefixed with a boolean that is true if only the changes were written.
+     *
+     * @param sinceVersions If not null, the version to write {@link IMCDataDeltaSerializable} data from or -1 to write the full data.
+     */
+    private PacketCustom createCapPacket(List<Integer> indexes, @Nullable long[] sinceVersions) {
         PacketCustom packet = new PacketCustom(BCoreNetwork.CHANNEL, BCoreNetwork.C_TILE_CAP_DATA);
         packet.writePos(tile.getBlockPos());
-        packet.writeInt(index);
-        if (helper.getData() instanceof IMCDataSerializable) {
-            ((IMCDataSerializable) helper.getData()).serializeMCD(packet);
-        } else {
-            packet.writeCompoundNBT((CompoundTag) helper.getData().serializeNBT());
+        packet.writeVarInt(indexes.size());
+        for (int index : indexes) {
+            SerializationFlags<?> helper = indexedDataList.get(index);
+            packet.writeVarInt(index);
+            if (helper.getData() instanceof IMCDataDeltaSerializable delta) {
+                long since = sinceVersions == null ? -1 : sinceVersions[index];
+                packet.writeBoolean(since >= 0);
+                if (since >= 0) {
+                    delta.serializeMCDDelta(packet, since);
+                    continue;
+                }
+            }
+            if (helper.getData() instanceof IMCDataSerializable) {
+                ((IMCDataSerializable) helper.getData()).serializeMCD(packet);
+            } else {
+                packet.writeCompoundNBT((CompoundTag) helper.getData().serializeNBT());
+            }
         }
         return packet;
     }
 
     @SuppressWarnings("unchecked")
     public void receiveCapSyncData(MCDataInput input) {
-        int index = input.readInt();
-        if (index >= 0 && index < indexedDataList.size()) {
+        int count = input.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int index = input.readVarInt();
+            if (index < 0 || index >= indexedDataList.size()) {
+                //Can not determine the length of unknown data so the remainder of this packet is unreadable.
+                break;
+            }
             SerializationFlags<?> helper = indexedDataList.get(index);
-            if (helper.getData() instanceof IMCDataSerializable) {
+            if (helper.getData() instanceof IMCDataDeltaSerializable delta && input.readBoolean()) {
+                delta.deSerializeMCDDelta(input);
+            } else if (helper.getData() instanceof IMCDataSerializable) {
                 ((IMCDataSerializable) helper.getData()).deSerializeMCD(input);
             } else {
                 helper.getData().deserializeNBT(input.readCompoundNBT());
@@ -1,6 +1,8 @@
 package com.brandon3055.brandonscore.client;
 
 import com.brandon3055.brandonscore.handlers.IProcess;
+import com.brandon3055.brandonscore.lib.DelayedTask;
+import com.brandon3055.brandonscore.lib.TimingWheel;
 import com.brandon3055.brandonscore.utils.BCProfiler;
 import net.covers1624.quack.util.CrashLock;
 import net.minecraftforge.common.MinecraftForge;
@@ -27,6 +29,7 @@ public class ProcessHandlerClient {
 
     private static List<IProcess> processes = new ArrayList<IProcess>();
     private static List<IProcess> newProcesses = new ArrayList<IProcess>();
+    private static final TimingWheel scheduler = new TimingWheel();
 
     private static List<IProcess> persistentProcesses = new ArrayList<IProcess>();
     private static List<IProcess> newPersistentProcesses = new ArrayList<IProcess>();
@@ -43,6 +46,7 @@ public class ProcessHandlerClient {
             while (!syncTasks.isEmpty()) {
                 syncTasks.poll().run();
             }
+            scheduler.tick();
 
             Iterator<IProcess> i = processes.iterator();
             while (i.hasNext()) {
@@ -59,6 +63,7 @@ public class ProcessHandlerClient {
                 processes.addAll(newProcesses);
                 newProcesses.clear();
             }
+            scheduler.endTick();
 
 
             i = persistentProcesses.iterator();
@@ -84,12 +89,20 @@ public class ProcessHandlerClient {
     public void onWorldClose(LevelEvent.Unload event) {
         processes.clear();
         newProcesses.clear();
+        scheduler.clear();
     }
 
     public static void addProcess(IProcess process) {
         newProcesses.add(process);
     }
 
+    /**
+     * Schedules a task to run after the specified number of ticks. Prefer this over adding a {@link DelayedTask.Task} as a process.
+     */
+    public static DelayedTask.Task schedule(int delay, Runnable task) {
+        return scheduler.schedule(delay, task);
+    }
+
     /**
      * Adds a new process that will not be removed when the world is closed.
      */
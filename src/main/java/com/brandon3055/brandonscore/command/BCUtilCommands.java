@@ -1,7 +1,10 @@
 package com.brandon3055.brandonscore.command;
 
 import com.brandon3055.brandonscore.BrandonsCore;
+import com.brandon3055.brandonscore.api.power.IOHistory;
+import com.brandon3055.brandonscore.api.power.IOPStorage;
 import com.brandon3055.brandonscore.blocks.TileBCore;
+import com.brandon3055.brandonscore.capability.CapabilityOP;
 import com.brandon3055.brandonscore.handlers.BCEventHandler;
 import com.brandon3055.brandonscore.handlers.HandHelper;
 import com.brandon3055.brandonscore.handlers.contributor.ContributorHandler;
@@ -106,7 +109,8 @@ public class BCUtilCommands {
                 .then(registerEggify())
                 .then(registerPlaceMultiBlock())
                 .then(reloadContributors())
-                .then(registerTileDebug());
+                .then(registerTileDebug())
+                .then(registerExportIOHistory());
         if (BrandonsCore.inDev) {
             builder.then(registerDev1());
             builder.then(registerDev2());
@@ -137,6 +141,19 @@ public class BCUtilCommands {
                 );
     }
 
+    private static ArgumentBuilder<CommandSourceStack, ?> registerExportIOHistory() {
+        LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal("export_io_history");
+        builder.requires(cs -> cs.hasPermission(3));
+        for (IOHistory.Resolution resolution : IOHistory.Resolution.values()) {
+            builder.then(Commands.literal(resolution.name().toLowerCase(Locale.ENGLISH))
+                    .then(Commands.argument("pos", BlockPosArgument.blockPos())
+                            .executes(context -> exportIOHistory(context.getSource(), BlockPosArgument.getLoadedBlockPos(context, "pos"), resolution))
+                    )
+            );
+        }
+        return builder;
+    }
+
     private static ArgumentBuilder<CommandSourceStack, ?> reloadContributors() {
         return Commands.literal("reset_contrib_handler")
                 .requires(cs -> cs.hasPermission(3))
@@ -255,6 +272,29 @@ public class BCUtilCommands {
 ////        ChatHelper.message(sender, "-", TextFormatting.GRAY);
 //    }
 
+    private static int exportIOHistory(CommandSourceStack source, BlockPos pos, IOHistory.Resolution resolution) throws CommandRuntimeException {
+        BlockEntity tile = source.getLevel().getBlockEntity(pos);
+        IOPStorage storage = tile == null ? null : tile.getCapability(CapabilityOP.OP).orElse(null);
+        if (storage == null || !(storage.getIOInfo() instanceof IOHistory history)) {
+            throw new CommandRuntimeException(Component.literal("There is no block with an IO history at that position."));
+        }
+
+        String name = source.getLevel().dimension().location().toString().replace(':', '_') + "_" + pos.getX() + "_" + pos.getY() + "_" + pos.getZ() + "_" + resolution.name().toLowerCase(Locale.ENGLISH) + ".csv";
+        File file = source.getServer().getFile("brandonscore/io_history/" + name);
+        file.getParentFile().mkdirs();
+        try (Writer writer = new BufferedWriter(new FileWriter(file, Charsets.UTF_8))) {
+            history.writeCSV(resolution, writer);
+        } catch (IOException e) {
+            LogHelperBC.errorError("Failed to export io history to %s", e, file);
+            throw new CommandRuntimeException(Component.literal("Failed to write file, see log for details."));
+        }
+
+        String path = file.getAbsolutePath();
+        source.sendSuccess(() -> Component.literal("Exported " + history.getSampleCount(resolution) + " samples to " + path)
+                .withStyle(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.COPY_TO_CLIPBOARD, path))), false);
+        return history.getSampleCount(resolution);
+    }
+
     private static int functionNBT(CommandSourceStack source) throws CommandRuntimeException, CommandSyntaxException {
         Player player = source.getPlayerOrException();
         ItemStack stack = HandHelper.getMainFirst(player);
@@ -8,4 +8,24 @@ public interface IProcess {
     void updateProcess();
 
     boolean isDead();
+
+    /**
+     * When a tick budget is configured {@link ProcessHandler} defers lower priority processes to a later tick once the budget is used.
+     * Processes that must run every tick (e.g. anything that is counting ticks) should use {@link Priority#CRITICAL}
+     *
+     * @return The priority of this process.
+     */
+    default Priority getPriority() {
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Processes are updated in this order. {@link #CRITICAL} processes are never deferred.
+     */
+    enum Priority {
+        CRITICAL,
+        HIGH,
+        NORMAL,
+        LOW
+    }
 }
@@ -1,12 +1,14 @@
 package com.brandon3055.brandonscore.handlers;
 
+import com.brandon3055.brandonscore.BCConfig;
+import com.brandon3055.brandonscore.lib.DelayedTask;
+import com.brandon3055.brandonscore.lib.TimingWheel;
 import net.covers1624.quack.util.CrashLock;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.server.ServerStoppedEvent;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -14,14 +16,29 @@ import java.util.List;
  * Processes are similar to tile entities except that they are not bound to anything and they are not currently
  * persistent (they will be deleted when the world closes)
  * <p/>
+ * If {@link BCConfig#processTickBudget} is set, processes are updated in {@link IProcess.Priority} order
+ * and once the budget is used any remaining non critical processes are deferred to the next tick.
+ * <p/>
  * Created by brandon3055 on 12/8/2015.
  */
 
 public class ProcessHandler {
     private static final CrashLock LOCK = new CrashLock("Already Initialized.");
 
-    private static List<IProcess> processes = new ArrayList<IProcess>();
+    private static final ProcessQueue[] queues = new ProcessQueue[IProcess.Priority.values().length];
     private static List<IProcess> newProcesses = new ArrayList<IProcess>();
+    private static final TimingWheel scheduler = new TimingWheel();
+
+    private static long lastTickNanos = 0;
+    private static int deferredLastTick = 0;
+    private static long totalDeferred = 0;
+    private static long overrunTicks = 0;
+
+    static {
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ProcessQueue();
+        }
+    }
 
     public static void init() {
         LOCK.lock();
@@ -32,35 +49,133 @@ public class ProcessHandler {
 
     public static void onServerTick(TickEvent.ServerTickEvent event) {
         if (event.phase == TickEvent.Phase.START) {
-            Iterator<IProcess> i = processes.iterator();
-
-            while (i.hasNext()) {
-                IProcess process = i.next();
-                if (process.isDead()) {
-                    i.remove();
+            long start = System.nanoTime();
+            long deadline = BCConfig.processTickBudget > 0 ? start + (long) (BCConfig.processTickBudget * 1000000D) : 0;
+            int deferred = 0;
+            try {
+                scheduler.tick();
+                for (ProcessQueue queue : queues) {
+                    deferred += queue.run(queue == queues[0] ? 0 : deadline);
                 }
-                else {
-                    process.updateProcess();
+
+                if (!newProcesses.isEmpty()) {
+                    for (IProcess process : newProcesses) {
+                        queues[process.getPriority().ordinal()].processes.add(process);
+                    }
+                    newProcesses.clear();
                 }
+            } finally {
+                scheduler.endTick();
             }
 
-            if (!newProcesses.isEmpty()) {
-                processes.addAll(newProcesses);
-                newProcesses.clear();
+            lastTickNanos = System.nanoTime() - start;
+            deferredLastTick = deferred;
+            totalDeferred += deferred;
+            if (deadline != 0 && start + lastTickNanos > deadline) {
+                overrunTicks++;
             }
         }
     }
 
     public static void clearHandler() {
-        processes.clear();
+        for (ProcessQueue queue : queues) {
+            queue.processes.clear();
+            queue.cursor = 0;
+        }
         newProcesses.clear();
+        scheduler.clear();
     }
 
     public static void addProcess(IProcess process) {
         newProcesses.add(process);
     }
 
+    /**
+     * Schedules a task to run after the specified number of ticks. Prefer this over adding a {@link DelayedTask.Task} as a process.
+     */
+    public static DelayedTask.Task schedule(int delay, Runnable task) {
+        return scheduler.schedule(delay, task);
+    }
+
     public static void onServerStop(ServerStoppedEvent event) {
         clearHandler();
     }
+
+    /**
+     * @return The time in nanoseconds spent running processes and scheduled tasks last tick.
+     */
+    public static long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * @return The number of processes that were deferred due to the tick budget last tick.
+     */
+    public static int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+    /**
+     * @return The total number of process updates deferred since the server started.
+     */
+    public static long getTotalDeferred() {
+        return totalDeferred;
+    }
+
+    /**
+     * @return The number of ticks where the process handler exceeded the configured budget.
+     * This can happen even with deferral because critical processes and scheduled tasks are never deferred.
+     */
+    public static long getOverrunTicks() {
+        return overrunTicks;
+    }
+
+    public static int getProcessCount() {
+        int count = newProcesses.size();
+        for (ProcessQueue queue : queues) {
+            count += queue.processes.size();
+        }
+        return count;
+    }
+
+    /**
+     * The processes for a single priority.
+     * Processes are updated round robin starting from wherever the previous tick ran out of time so deferred processes are never starved.
+     */
+    private static class ProcessQueue {
+        private final List<IProcess> processes = new ArrayList<>();
+        private int cursor = 0;
+
+        /**
+         * @param deadline The System.nanoTime() after which remaining processes are deferred, or 0 for no limit.
+         * @return The number of processes that were deferred.
+         */
+        private int run(long deadline) {
+            int size = processes.size();
+            if (size == 0) return 0;
+
+            int updated = 0;
+            for (; updated < size; updated++) {
+                if (deadline != 0 && System.nanoTime() > deadline) break;
+                IProcess process = processes.get((cursor + updated) % size);
+                if (!process.isDead()) {
+                    process.updateProcess();
+                }
+            }
+
+            int next = (cursor + updated) % size;
+            int kept = 0;
+            int nextCursor = 0;
+            for (int i = 0; i < size; i++) {
+                IProcess process = processes.get(i);
+                if (i == next) nextCursor = kept;
+                if (!process.isDead()) {
+                    processes.set(kept++, process);
+                }
+            }
+            processes.subList(kept, size).clear();
+            cursor = kept == 0 ? 0 : nextCursor % kept;
+            return size - updated;
+        }
+    }
 }
@@ -62,6 +62,7 @@ public abstract class ContainerBCTile<T extends TileBCore> extends ModularGuiCon
         super.addSlotListener(listener);
         if (listener instanceof ServerPlayer) {
             tile.getDataManager().forcePlayerSync((ServerPlayer) listener);
+            tile.getCapManager().forcePlayerSync((ServerPlayer) listener);
         }
     }
 
@@ -1,5 +1,8 @@
 package com.brandon3055.brandonscore.inventory;
 
+import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
+import com.brandon3055.brandonscore.lib.IMCDataDeltaSerializable;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
@@ -9,6 +12,7 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiPredicate;
@@ -19,7 +23,7 @@ import java.util.function.Supplier;
 /**
  * Created by brandon3055 on 13/9/19.
  */
-public class TileItemStackHandler extends ItemStackHandler {
+public class TileItemStackHandler extends ItemStackHandler implements IMCDataDeltaSerializable {
 
     private final BlockEntity tile;
     private BiPredicate<Integer, ItemStack> stackValidator = null;
@@ -29,6 +33,11 @@ public class TileItemStackHandler extends ItemStackHandler {
     private ItemStack prevStack = ItemStack.EMPTY;
     private Supplier<Integer> perSlotLimit = null;
     private int slotLimit = 64;
+    private long changeVersion = 0;
+    /**
+     * The change version at which each slot was last modified.
+     */
+    private long[] slotVersions = null;
 
     public TileItemStackHandler(BlockEntity tile) {
         this.tile = tile;
@@ -136,9 +145,16 @@ public class TileItemStackHandler extends ItemStackHandler {
         onLoad();
     }
 
+    @Override
+    public void setSize(int size) {
+        super.setSize(size);
+        markChanged(-1);
+    }
+
     @Override
     protected void onContentsChanged(int slot) {
         super.onContentsChanged(slot);
+        markChanged(slot);
         if (contentsChangeListener != null) {
             contentsChangeListener.accept(slot);
         }
@@ -148,11 +164,76 @@ public class TileItemStackHandler extends ItemStackHandler {
     @Override
     protected void onLoad() {
         super.onLoad();
+        markChanged(-1);
         if (loadListener != null) {
             loadListener.run();
         }
     }
 
+    /**
+     * Increments the change version and records it as the version the given slot was last modified at.
+     *
+     * @param slot The slot that changed or -1 if every slot may have changed.
+     */
+    private void markChanged(int slot) {
+        changeVersion++;
+        if (slotVersions == null || slotVersions.length != stacks.size()) {
+            slotVersions = new long[stacks.size()];
+            slot = -1;
+        }
+        if (slot == -1) {
+            Arrays.fill(slotVersions, changeVersion);
+        } else if (slot >= 0 && slot < slotVersions.length) {
+            slotVersions[slot] = changeVersion;
+        }
+    }
+
+    /**
+     * Incremented by {@link #onContentsChanged(int)}, {@link #onLoad()} and {@link #setSize(int)}.
+     * Stacks that are modified directly (e.g. getStackInSlot(0).shrink(1)) are not detected,
+     * so code that does this must call {@link #onContentsChanged(int)} (or use {@link #setStackInSlot(int, ItemStack)}) afterwards.
+     */
+    @Override
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    /**
+     * Format: [varInt size][varInt count] then [varInt slot][stack] for each changed slot.
+     */
+    @Override
+    public void serializeMCDDelta(MCDataOutput output, long sinceVersion) {
+        if (slotVersions == null || slotVersions.length != stacks.size()) {
+            markChanged(-1);
+        }
+        int count = 0;
+        for (long version : slotVersions) {
+            if (version > sinceVersion) count++;
+        }
+        output.writeVarInt(stacks.size());
+        output.writeVarInt(count);
+        for (int i = 0; i < slotVersions.length; i++) {
+            if (slotVersions[i] > sinceVersion) {
+                output.writeVarInt(i);
+                output.writeItemStack(stacks.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void deSerializeMCDDelta(MCDataInput input) {
+        int size = input.readVarInt();
+        int count = input.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int slot = input.readVarInt();
+            ItemStack stack = input.readItemStack();
+            if (size == stacks.size() && slot >= 0 && slot < stacks.size()) {
+                stacks.set(slot, stack);
+            }
+        }
+        onLoad();
+    }
+
     public ItemStack getListenerPrevStack() {
         return prevStack;
     }
@@ -21,12 +21,23 @@ public abstract class DelayedExecutor implements IProcess {
 
     @Override
     public final void updateProcess() {
-        if (delay <= 0 && !hasExecuted) {
+        if (delay <= 0) {
+            executeOnce();
+        }
+
+        delay--;
+    }
+
+    private void executeOnce() {
+        if (!hasExecuted) {
             execute(args);
             hasExecuted = true;
         }
+    }
 
-        delay--;
+    @Override
+    public Priority getPriority() {
+        return Priority.CRITICAL;
     }
 
     @Override
@@ -35,6 +46,6 @@ public abstract class DelayedExecutor implements IProcess {
     }
 
     public void run() {
-        ProcessHandler.addProcess(this);
+        ProcessHandler.schedule(delay, this::executeOnce);
     }
 }
@@ -9,6 +9,11 @@ import net.minecraftforge.fml.DistExecutor;
 
 /**
  * Created by brandon3055 on 4/01/2018.
+ * <p>
+ * Tasks scheduled via {@link #server(int, Runnable)}, {@link #client(int, Runnable)} or {@link #sided(int, Runnable)}
+ * are run by a {@link TimingWheel} so pending tasks cost nothing until they are due.
+ * Use {@link #scheduleServer(int, Runnable)}, {@link #scheduleClient(int, Runnable)} or {@link #scheduleSided(int, Runnable)}
+ * if the task may need to be cancelled, e.g. when the tile that scheduled it is unloaded.
  */
 public class DelayedTask {
 
@@ -18,16 +23,36 @@ public class DelayedTask {
     }
 
     public static void sided(int delay, Runnable task) {
-        DistExecutor.safeRunWhenOn(Dist.CLIENT, () -> () -> ProcessHandlerClient.addProcess(new Task(delay, task)));
-        DistExecutor.safeRunWhenOn(Dist.DEDICATED_SERVER, () -> () -> ProcessHandler.addProcess(new Task(delay, task)));
+        scheduleSided(delay, task);
     }
 
     public static void server(int delay, Runnable task) {
-        ProcessHandler.addProcess(new Task(delay, task));
+        scheduleServer(delay, task);
     }
 
     public static void client(int delay, Runnable task) {
-        ProcessHandlerClient.addProcess(new Task(delay, task));
+        scheduleClient(delay, task);
+    }
+
+    /**
+     * Same as {@link #sided(int, Runnable)} but returns the task so it can be cancelled.
+     */
+    public static Task scheduleSided(int delay, Runnable task) {
+        return DistExecutor.unsafeRunForDist(() -> () -> ProcessHandlerClient.schedule(delay, task), () -> () -> ProcessHandler.schedule(delay, task));
+    }
+
+    /**
+     * Same as {@link #server(int, Runnable)} but returns the task so it can be cancelled.
+     */
+    public static Task scheduleServer(int delay, Runnable task) {
+        return ProcessHandler.schedule(delay, task);
+    }
+
+    /**
+     * Same as {@link #client(int, Runnable)} but returns the task so it can be cancelled.
+     */
+    public static Task scheduleClient(int delay, Runnable task) {
+        return ProcessHandlerClient.schedule(delay, task);
     }
 
 
@@ -35,6 +60,8 @@ public class DelayedTask {
         private int delay;
         private Runnable task;
         private boolean hasExecuted = false;
+        /** The tick this task is due on. Only used by {@link TimingWheel} */
+        long due;
 
         public Task(int delay, Runnable task) {
             this.delay = delay;
@@ -43,11 +70,29 @@ public class DelayedTask {
 
         @Override
         public final void updateProcess() {
-            if (delay <= 0 && !hasExecuted) {
+            if (delay <= 0) {
+                execute();
+            }
+            delay--;
+        }
+
+        final void execute() {
+            if (!hasExecuted) {
                 task.run();
                 hasExecuted = true;
             }
-            delay--;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return Priority.CRITICAL;
+        }
+
+        /**
+         * Prevents this task from running if it has not already run.
+         */
+        public void cancel() {
+            hasExecuted = true;
         }
 
         @Override
@@ -0,0 +1,15 @@
+package com.brandon3055.brandonscore.lib;
+
+/**
+ * A cheaper alternative to {@link IValueHashable} for data objects that can track their own modifications.
+ * Change detection only needs to compare the last seen version with the current version
+ * rather than serializing or copying the data.
+ */
+public interface IChangeVersioned {
+
+    /**
+     * @return A counter that increases every time the value(s) stored in this data object change.
+     * The value itself is meaningless, only whether it differs from a previously returned version.
+     */
+    long getChangeVersion();
+}
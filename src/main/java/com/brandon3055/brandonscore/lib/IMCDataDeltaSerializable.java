@@ -0,0 +1,20 @@
+package com.brandon3055.brandonscore.lib;
+
+import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
+
+/**
+ * Implemented by data objects that can send only the parts of their data that have changed since a given {@link #getChangeVersion()}
+ * For example an inventory that only sends the slots that have changed.
+ */
+public interface IMCDataDeltaSerializable extends IChangeVersioned {
+
+    /**
+     * Write everything that has changed since the given version.
+     *
+     * @param sinceVersion A version previously returned by {@link #getChangeVersion()}
+     */
+    void serializeMCDDelta(MCDataOutput output, long sinceVersion);
+
+    void deSerializeMCDDelta(MCDataInput input);
+}
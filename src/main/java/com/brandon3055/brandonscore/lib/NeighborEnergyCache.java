@@ -0,0 +1,126 @@
+package com.brandon3055.brandonscore.lib;
+
+import com.brandon3055.brandonscore.api.power.IOPStorage;
+import com.brandon3055.brandonscore.capability.CapabilityOP;
+import com.brandon3055.brandonscore.capability.OPWrappers;
+import com.brandon3055.brandonscore.utils.EnergyUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the energy storage exposed by each neighbour of a tile so energy can be pushed to neighbours every tick
+ * without looking up the neighbouring tile and querying its capabilities every time.
+ * <p>
+ * A cached storage is dropped when its capability is invalidated, when the neighbouring tile is removed or when {@link #onNeighborChanged(BlockPos)} is called for that side.
+ * Using a cached storage does not query the neighbour's capabilities. When a {@link com.brandon3055.brandonscore.blocks.TileCapabilityManager}
+ * side validator's result changes, the tile must call {@link com.brandon3055.brandonscore.blocks.TileCapabilityManager#revalidate(Object)}
+ * so the capability is invalidated and caches like this one drop it.
+ * Sides with no accessible energy receiver are skipped until {@link #onNeighborChanged(BlockPos)} is called for that side.
+ * <p>
+ * {@link #onNeighborChanged(BlockPos)} is called by {@link com.brandon3055.brandonscore.blocks.BlockBCore#neighborChanged}.
+ * Blocks that override neighborChanged must call super or the cache will not see neighbours being placed.
+ */
+public class NeighborEnergyCache {
+    private final BlockEntity tile;
+    private final IOPStorage[] storages = new IOPStorage[6];
+    private final BlockEntity[] neighbors = new BlockEntity[6];
+    private final LazyOptional<?>[] listened = new LazyOptional[6];
+    private final boolean[] resolved = new boolean[6];
+
+    public NeighborEnergyCache(BlockEntity tile) {
+        this.tile = tile;
+    }
+
+    /**
+     * @return The energy storage on the given side or null if there is none.
+     */
+    @Nullable
+    public IOPStorage getStorage(Direction side) {
+        int index = side.ordinal();
+        if (resolved[index]) {
+            BlockEntity neighbor = neighbors[index];
+            if (neighbor == null) {
+                return null;
+            }
+            if (!neighbor.isRemoved()) {
+                return storages[index];
+            }
+        }
+        return resolve(side);
+    }
+
+    /**
+     * Should be called when a neighbouring block changes.
+     *
+     * @param neighborPos The position of the block that changed.
+     */
+    public void onNeighborChanged(BlockPos neighborPos) {
+        BlockPos pos = tile.getBlockPos();
+        for (Direction side : Direction.values()) {
+            if (pos.relative(side).equals(neighborPos)) {
+                invalidate(side);
+            }
+        }
+    }
+
+    public void invalidate(Direction side) {
+        int index = side.ordinal();
+        resolved[index] = false;
+        storages[index] = null;
+        neighbors[index] = null;
+    }
+
+    public void invalidateAll() {
+        for (Direction side : Direction.values()) {
+            invalidate(side);
+        }
+    }
+
+    @Nullable
+    private IOPStorage resolve(Direction side) {
+        int index = side.ordinal();
+        invalidate(side);
+        Level level = tile.getLevel();
+        BlockPos pos = tile.getBlockPos().relative(side);
+        if (level == null || !level.isLoaded(pos)) {
+            //Do not cache anything for unloaded neighbours because there will be no block update when they load.
+            return null;
+        }
+
+        BlockEntity neighbor = level.getBlockEntity(pos);
+        resolved[index] = true;
+        if (neighbor == null) {
+            return null;
+        }
+
+        Direction opposite = side.getOpposite();
+        IOPStorage storage = EnergyUtils.getStorageFromProvider(neighbor, opposite);
+        if (storage != null) {
+            Capability<?> capability = storage instanceof OPWrappers.FE ? ForgeCapabilities.ENERGY : CapabilityOP.OP;
+            listen(index, neighbor.getCapability(capability, opposite));
+        }
+
+        neighbors[index] = neighbor;
+        storages[index] = storage;
+        return storage;
+    }
+
+    private <T> void listen(int index, LazyOptional<T> optional) {
+        //Avoid adding another listener every time this side is re-resolved.
+        if (listened[index] == optional) return;
+        listened[index] = optional;
+        optional.addListener(e -> {
+            if (listened[index] == e) {
+                listened[index] = null;
+                invalidate(Direction.from3DDataValue(index));
+            }
+        });
+    }
+}
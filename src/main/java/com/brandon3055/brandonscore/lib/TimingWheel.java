@@ -0,0 +1,141 @@
+package com.brandon3055.brandonscore.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel used to run {@link DelayedTask.Task}s.
+ * Scheduling a task is constant time and each tick only touches the tasks that are due that tick,
+ * plus an occasional cascade of tasks from an outer wheel into the wheel below it.
+ * <p>
+ * Each wheel has 64 slots. Wheel 0 holds tasks due within 64 ticks, wheel 1 within 4096 ticks and so on.
+ * Tasks further out than the outermost wheel can cover are re-inserted each time the outermost wheel comes around.
+ * <p>
+ * Not thread safe. Must only be used from the thread that calls {@link #tick()}.
+ */
+public class TimingWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    @SuppressWarnings("unchecked")
+    private final List<DelayedTask.Task>[][] wheels = new List[LEVELS][SLOTS];
+    private final List<DelayedTask.Task> cascading = new ArrayList<>();
+    /**
+     * The list of tasks currently being run. Swapped with the due slot each tick so no list is allocated in normal operation.
+     */
+    private List<DelayedTask.Task> running = new ArrayList<>();
+    private long tick = 0;
+    private int size = 0;
+    /**
+     * True between {@link #tick()} and {@link #endTick()}.
+     */
+    private boolean inTick = false;
+
+    /**
+     * Schedules a task using the same timing as the old process based tasks.
+     * Those were only picked up at the end of the process handler's tick, after that tick's processes had run. So:
+     * <ul>
+     * <li>A task scheduled during the handler's tick (e.g. by another task or process) runs delay + 1 ticks later.</li>
+     * <li>A task scheduled at any other time (e.g. from a world or tile tick) runs delay + 2 handler ticks later.</li>
+     * </ul>
+     */
+    public DelayedTask.Task schedule(int delay, Runnable runnable) {
+        DelayedTask.Task task = new DelayedTask.Task(delay, runnable);
+        task.due = tick + Math.max(0, delay) + (inTick ? 1 : 2);
+        insert(task);
+        size++;
+        return task;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs all tasks that are due.
+     */
+    public void tick() {
+        tick++;
+        inTick = true;
+
+        //Cascade outer wheels from the outermost that has come around, so tasks can fall all the way down to wheel 0.
+        int level = 0;
+        while (level + 1 < LEVELS && (tick & ((1L << (BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            List<DelayedTask.Task> slot = wheels[level][(int) (tick >> (BITS * level)) & MASK];
+            if (slot == null || slot.isEmpty()) continue;
+            cascading.addAll(slot);
+            slot.clear();
+            for (DelayedTask.Task task : cascading) {
+                if (task.isDead()) {
+                    size--;
+                } else {
+                    insert(task);
+                }
+            }
+            cascading.clear();
+        }
+
+        List<DelayedTask.Task> slot = wheels[0][(int) tick & MASK];
+        if (slot == null || slot.isEmpty()) return;
+        //Swap in an empty list before running anything so the slot is left empty even if a task throws.
+        //If a task does throw, the remaining tasks in the slot are dropped.
+        wheels[0][(int) tick & MASK] = running;
+        running = slot;
+        size -= slot.size();
+        try {
+            for (int i = 0; i < slot.size(); i++) {
+                slot.get(i).execute();
+            }
+        } finally {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Must be called once the process handler has finished its tick (after new processes have been added) so tasks
+     * scheduled from then on get the correct timing. See {@link #schedule(int, Runnable)}
+     */
+    public void endTick() {
+        inTick = false;
+    }
+
+    /**
+     * @return The number of scheduled tasks. Cancelled tasks are included until their slot is reached.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (List<DelayedTask.Task>[] wheel : wheels) {
+            for (List<DelayedTask.Task> slot : wheel) {
+                if (slot != null) slot.clear();
+            }
+        }
+        size = 0;
+    }
+
+    private void insert(DelayedTask.Task task) {
+        long due = task.due;
+        long delta = due - tick;
+        if (delta > MAX_DELTA) {
+            //Park in the outermost wheel. It will be re-inserted when that slot comes around.
+            due = tick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+
+        int index = (int) (due >> (BITS * level)) & MASK;
+        List<DelayedTask.Task> slot = wheels[level][index];
+        if (slot == null) {
+            slot = wheels[level][index] = new ArrayList<>();
+        }
+        slot.add(task);
+    }
+}
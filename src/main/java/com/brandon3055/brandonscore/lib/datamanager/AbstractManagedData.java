@@ -1,6 +1,7 @@
 package com.brandon3055.brandonscore.lib.datamanager;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -20,7 +21,8 @@ public abstract class AbstractManagedData<T> implements IManagedData {
      * @see #setCCSCS()
      * */
     protected boolean ccscsFlag = false; //clientControlSetClientSide
-    protected List<Consumer<T>> valueListeners = new ArrayList<>();
+    protected int syncInterval = 0;
+    protected List<Consumer<T>> valueListeners = Collections.emptyList();
 
     public AbstractManagedData(String name, /*T defaultValue,*/ DataFlags... flags) {
         this.name = name;
@@ -40,6 +42,9 @@ public abstract class AbstractManagedData<T> implements IManagedData {
 
     public void addFlags(DataFlags... newFlags) {
         flags = new DataFlags(flags, newFlags);
+        if (dataManager instanceof TileDataManager<?> manager) {
+            manager.invalidatePartitions();
+        }
     }
 
     @Override
@@ -56,11 +61,19 @@ public abstract class AbstractManagedData<T> implements IManagedData {
     public void markDirty() {
         validate();
         isDirty = true;
+        if (dataManager != null) {
+            dataManager.onDataDirty(this);
+        }
         if (flags.saveNBT && !flags.dontMark){
             dataManager.markDirty();
         }
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return false;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
         boolean ret = isDirty;
@@ -92,6 +105,31 @@ public abstract class AbstractManagedData<T> implements IManagedData {
         this.ccscsFlag = true;
     }
 
+    /**
+     * Limits how often this data is sent to players tracking the tile. Useful for values that change every tick such as energy or progress
+     * where the client only needs a few updates per second. Changes within the interval are not lost, the latest value is
+     * always sent once the interval has elapsed. This does not affect container or sync on set updates.
+     *
+     * @param ticks The minimum number of ticks between syncs.
+     */
+    public void setSyncInterval(int ticks) {
+        this.syncInterval = Math.max(0, ticks);
+    }
+
+    /**
+     * Convenience version of {@link #setSyncInterval(int)}
+     *
+     * @param maxSyncHz The maximum number of times this data will be synced per second.
+     */
+    public void setMaxSyncHz(int maxSyncHz) {
+        setSyncInterval(maxSyncHz <= 0 ? 0 : (int) Math.ceil(20D / maxSyncHz));
+    }
+
+    @Override
+    public int getSyncInterval() {
+        return syncInterval;
+    }
+
     /**
      * No matter what a value listener will always have the current value stored in this object.
      * The value listener is updated when any of the following actions occur.
@@ -103,6 +141,9 @@ public abstract class AbstractManagedData<T> implements IManagedData {
      * @param listener A value listener
      */
     public void addValueListener(Consumer<T> listener) {
+        if (valueListeners.isEmpty()) {
+            valueListeners = new ArrayList<>();
+        }
         valueListeners.add(listener);
     }
 
@@ -111,6 +152,9 @@ public abstract class AbstractManagedData<T> implements IManagedData {
     }
 
     protected void notifyListeners(T newValue) {
-        valueListeners.forEach(listener -> listener.accept(newValue));
+        if (valueListeners.isEmpty()) return;
+        for (Consumer<T> listener : valueListeners) {
+            listener.accept(newValue);
+        }
     }
 }
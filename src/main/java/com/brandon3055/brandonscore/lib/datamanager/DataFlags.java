@@ -3,6 +3,8 @@ package com.brandon3055.brandonscore.lib.datamanager;
 import com.brandon3055.brandonscore.inventory.ContainerBCore;
 import com.google.common.annotations.Beta;
 
+import java.util.Objects;
+
 /**
  * Created by brandon3055 on 7/7/19.
  * I only ever see this system being used on tiles so the documentation will reflect that.
@@ -31,7 +33,7 @@ public class DataFlags {
      * Sync this data via container.
      * This will only sync the data when the client is accessing a {@link ContainerBCore} linked to this tile.
      * Useful if data is only needed inside a GUI.
-     * TODO I think this will have issues if multiple players have a container open. I need to look into this if its still an issue in 1.14+
+     * Players that open the container after the data was last changed receive a full sync when they open it.
      */
     public static DataFlags SYNC_CONTAINER = new DataFlags(false, false, false, true, false, false, false, false);
 
@@ -73,6 +75,22 @@ public class DataFlags {
     @Deprecated //Meh changed my mind but this may still be useful
     public static DataFlags DONT_DIRTY = new DataFlags(false, false, false, false, false, false, false, true);
 
+    /**
+     * Supported by {@link ManagedInt}, {@link ManagedLong} and by {@link ManagedDouble} / {@link ManagedFloat} when a sync precision is set.
+     * Values are synced as variable length deltas against the last keyframe rather than full fixed width values.
+     * Keyframes are sent periodically. This is ideal for values such as energy counters that change every tick but only by a small amount.
+     *
+     * @see DeltaCodec
+     */
+    public static DataFlags DELTA_SYNC = new DataFlags(false, false, false, false, false, false, false, false, true);
+
+    /**
+     * Only applies to tiles using {@link TileDataManager#setSyncLOD(SyncLOD)}.
+     * Critical data is sent to every player tracking the tile no matter how far away they are.
+     * Use this for data that affects what distant players can see, e.g. a block's active state.
+     */
+    public static DataFlags SYNC_CRITICAL = new DataFlags(false, false, false, false, false, false, false, false, false, true);
+
 
     public final boolean saveNBT;
     public final boolean saveItem;
@@ -82,8 +100,18 @@ public class DataFlags {
     public final boolean syncOnSet;
     public final boolean allowClientControl;
     public final boolean dontMark;
+    public final boolean deltaSync;
+    public final boolean syncCritical;
 
     DataFlags(boolean saveNBT, boolean saveItem, boolean syncTile, boolean syncContainer, boolean triggerUpdate, boolean syncOnSet, boolean allowClientControl, boolean dontMark) {
+        this(saveNBT, saveItem, syncTile, syncContainer, triggerUpdate, syncOnSet, allowClientControl, dontMark, false, false);
+    }
+
+    DataFlags(boolean saveNBT, boolean saveItem, boolean syncTile, boolean syncContainer, boolean triggerUpdate, boolean syncOnSet, boolean allowClientControl, boolean dontMark, boolean deltaSync) {
+        this(saveNBT, saveItem, syncTile, syncContainer, triggerUpdate, syncOnSet, allowClientControl, dontMark, deltaSync, false);
+    }
+
+    DataFlags(boolean saveNBT, boolean saveItem, boolean syncTile, boolean syncContainer, boolean triggerUpdate, boolean syncOnSet, boolean allowClientControl, boolean dontMark, boolean deltaSync, boolean syncCritical) {
         this.saveNBT = saveNBT;
         this.saveItem = saveItem;
         this.syncTile = syncTile;
@@ -92,6 +120,8 @@ public class DataFlags {
         this.syncOnSet = syncOnSet;
         this.allowClientControl = allowClientControl;
         this.dontMark = dontMark;
+        this.deltaSync = deltaSync;
+        this.syncCritical = syncCritical;
     }
 
     DataFlags(DataFlags[] combine) {
@@ -107,6 +137,8 @@ public class DataFlags {
         boolean syncOnSet = base.syncOnSet;
         boolean allowClientControl = base.allowClientControl;
         boolean dontMark = base.dontMark;
+        boolean deltaSync = base.deltaSync;
+        boolean syncCritical = base.syncCritical;
         for (DataFlags flag : combine) {
             saveNBT |= flag.saveNBT;
             saveItem |= flag.saveItem;
@@ -116,6 +148,8 @@ public class DataFlags {
             syncOnSet |= flag.syncOnSet;
             allowClientControl |= flag.allowClientControl;
             dontMark |= flag.dontMark;
+            deltaSync |= flag.deltaSync;
+            syncCritical |= flag.syncCritical;
         }
         this.saveNBT = saveNBT;
         this.saveItem = saveItem;
@@ -125,9 +159,23 @@ public class DataFlags {
         this.syncOnSet = syncOnSet;
         this.allowClientControl = allowClientControl;
         this.dontMark = dontMark;
+        this.deltaSync = deltaSync;
+        this.syncCritical = syncCritical;
     }
 
     public boolean syncViaPacket() {
         return syncTile || syncContainer;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DataFlags other)) return false;
+        return saveNBT == other.saveNBT && saveItem == other.saveItem && syncTile == other.syncTile && syncContainer == other.syncContainer && triggerUpdate == other.triggerUpdate && syncOnSet == other.syncOnSet && allowClientControl == other.allowClientControl && dontMark == other.dontMark && deltaSync == other.deltaSync && syncCritical == other.syncCritical;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(saveNBT, saveItem, syncTile, syncContainer, triggerUpdate, syncOnSet, allowClientControl, dontMark, deltaSync, syncCritical);
+    }
 }
@@ -0,0 +1,101 @@
+package com.brandon3055.brandonscore.lib.datamanager;
+
+import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
+
+/**
+ * Handles {@link DataFlags#DELTA_SYNC} encoding for numeric managed data.
+ * Values are sent as zig-zag var-long deltas against the last keyframe and a full keyframe is sent every {@link #KEYFRAME_INTERVAL} updates.
+ * <p>
+ * Every delta carries the id of the keyframe it is relative to. If a client has not received that keyframe
+ * (e.g. it started tracking the tile after the keyframe was sent, or the keyframe was sent via a container sync)
+ * the delta is ignored and the client keeps its current value until the next keyframe or full update arrives.
+ * {@link TileDataManager} sends a full update when delta synced data stops changing so a client can never be left with a stale value.
+ * <p>
+ * Server side this holds the writer state, client side it holds the reader state.
+ */
+public class DeltaCodec {
+    public static final int KEYFRAME_INTERVAL = 20;
+
+    private static final int KEYFRAME = 0;
+    private static final int DELTA = 1;
+    private static final int RESYNC = 2;
+    private static final int ABSOLUTE = 3;
+
+    private long baseline = 0;
+    private byte keyframeId = 0;
+    private boolean hasBaseline = false;
+    private int sinceKeyframe = 0;
+
+    /**
+     * @param value      The value to write.
+     * @param fullSync   Write the current keyframe as well as the value. Used when syncing to a client that may not have received previous updates.
+     * @param clientSide Values sent from the client are always written as absolute values.
+     */
+    public void write(MCDataOutput output, long value, boolean fullSync, boolean clientSide) {
+        if (clientSide) {
+            output.writeByte(ABSOLUTE);
+            output.writeVarLong(zigZag(value));
+            return;
+        }
+
+        long delta = value - baseline;
+        if (fullSync && hasBaseline) {
+            output.writeByte(RESYNC);
+            output.writeByte(keyframeId);
+            output.writeVarLong(zigZag(baseline));
+            output.writeVarLong(zigZag(delta));
+        } else if (!hasBaseline || sinceKeyframe >= KEYFRAME_INTERVAL || Long.compareUnsigned(zigZag(delta), zigZag(value)) >= 0) {
+            keyframeId++;
+            baseline = value;
+            hasBaseline = true;
+            sinceKeyframe = 0;
+            output.writeByte(KEYFRAME);
+            output.writeByte(keyframeId);
+            output.writeVarLong(zigZag(value));
+        } else {
+            sinceKeyframe++;
+            output.writeByte(DELTA);
+            output.writeByte(keyframeId);
+            output.writeVarLong(zigZag(delta));
+        }
+    }
+
+    /**
+     * @param current The current value.
+     * @return The received value, or the current value if the received delta is relative to a keyframe this client does not have.
+     */
+    public long read(MCDataInput input, long current) {
+        int type = input.readByte();
+        switch (type) {
+            case KEYFRAME -> {
+                keyframeId = input.readByte();
+                baseline = unZigZag(input.readVarLong());
+                hasBaseline = true;
+                return baseline;
+            }
+            case DELTA -> {
+                byte id = input.readByte();
+                long delta = unZigZag(input.readVarLong());
+                return hasBaseline && id == keyframeId ? baseline + delta : current;
+            }
+            case RESYNC -> {
+                keyframeId = input.readByte();
+                baseline = unZigZag(input.readVarLong());
+                hasBaseline = true;
+                return baseline + unZigZag(input.readVarLong());
+            }
+            default -> {
+                return unZigZag(input.readVarLong());
+            }
+        }
+    }
+
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -30,6 +30,11 @@ public interface IDataManager {
      */
     PacketCustom createSyncPacket(); //TODO Not sure if i really need to define this in the interface...
 
+    /**
+     * Receives a sync packet created via {@link #createSyncPacket()}.
+     * Note: {@link TileDataManager} batches all data changed within a tick into a single packet
+     * so this is expected to read every data object contained in the packet.
+     */
     void receiveSyncData(MCDataInput input);
 
     /**
@@ -64,6 +69,14 @@ public interface IDataManager {
      */
     void markDirty();
 
+    /**
+     * Called by a data object when it is marked dirty, before {@link #markDirty()}.
+     * Allows the manager to track exactly which data has changed so it does not need to poll every data object each tick.
+     *
+     * @param data The data that was marked dirty.
+     */
+    default void onDataDirty(IManagedData data) {}
+
     /**
      * @return true if called client side.
      */
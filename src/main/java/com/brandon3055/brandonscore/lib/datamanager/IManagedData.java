@@ -39,6 +39,14 @@ public interface IManagedData {
      */
     void toBytes(MCDataOutput output);
 
+    /**
+     * Same as {@link #toBytes(MCDataOutput)} but the written data must be readable by a client that has not received any previous updates.
+     * Only needs to be overridden by data that sends incremental updates. (See {@link DataFlags#DELTA_SYNC})
+     */
+    default void toBytesFull(MCDataOutput output) {
+        toBytes(output);
+    }
+
     /**
      * De serialize this object from bytes.
      */
@@ -70,6 +78,25 @@ public interface IManagedData {
 
     void init(IDataManager dataManager, int index);
 
+    /**
+     * Data that reports every change via {@link #markDirty()} does not need to be checked by the manager every tick.
+     * If the value held by this data can be modified without calling {@link #markDirty()} (e.g. a mutable value object)
+     * this must return true so the manager knows to poll {@link #isDirty(boolean)}.
+     *
+     * @return true if the data manager must poll this data for changes.
+     */
+    default boolean requiresPolling() {
+        return true;
+    }
+
+    /**
+     * @return The minimum number of ticks between tile syncs of this data. 0 means this data is synced every tick it changes.
+     * @see AbstractManagedData#setSyncInterval(int)
+     */
+    default int getSyncInterval() {
+        return 0;
+    }
+
     /**
      * @return the data manager this is registered to.
      */
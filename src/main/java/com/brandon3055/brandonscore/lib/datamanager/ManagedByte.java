@@ -4,8 +4,12 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import net.minecraft.nbt.CompoundTag;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -13,7 +17,8 @@ import java.util.function.Function;
 public class ManagedByte extends AbstractManagedData<Byte> {
 
     private byte value;
-    protected Function<Byte, Byte> validator = null;
+    protected IntUnaryOperator validator = null;
+    private List<IntConsumer> intListeners = Collections.emptyList();
 
     public ManagedByte(String name, int defaultValue, DataFlags... flags) {
         super(name, flags);
@@ -28,7 +33,7 @@ public class ManagedByte extends AbstractManagedData<Byte> {
     }
 
     public int set(int value) {
-        if (!Objects.equals(this.value, value)) {
+        if (this.value != (byte) value) {
             boolean set = true;
             byte prev = this.value;
             this.value = (byte) value;
@@ -40,7 +45,7 @@ public class ManagedByte extends AbstractManagedData<Byte> {
 
             if (set) {
                 markDirty();
-                notifyListeners((byte) value);
+                notifyValueListeners();
             }
             else {
                 this.value = prev;
@@ -59,7 +64,7 @@ public class ManagedByte extends AbstractManagedData<Byte> {
      *
      * @param validator a validator function that takes an input, applies restrictions if needed then returns the updated value.
      */
-    public ManagedByte setValidator(Function<Byte, Byte> validator) {
+    public ManagedByte setValidator(IntUnaryOperator validator) {
         this.validator = validator;
         return this;
     }
@@ -67,7 +72,33 @@ public class ManagedByte extends AbstractManagedData<Byte> {
     @Override
     public void validate() {
         if (validator != null) {
-            value = validator.apply(value);
+            value = (byte) validator.applyAsInt(value);
+        }
+    }
+
+    /**
+     * Primitive alternative to {@link #addValueListener(Consumer)} that does not box the value.
+     *
+     * @param listener A value listener
+     * @see #addValueListener(Consumer)
+     */
+    public void addIntListener(IntConsumer listener) {
+        if (intListeners.isEmpty()) {
+            intListeners = new ArrayList<>();
+        }
+        intListeners.add(listener);
+    }
+
+    public void removeIntListener(IntConsumer listener) {
+        intListeners.remove(listener);
+    }
+
+    private void notifyValueListeners() {
+        for (int i = 0; i < intListeners.size(); i++) {
+            intListeners.get(i).accept(value);
+        }
+        if (!valueListeners.isEmpty()) {
+            notifyListeners(value);
         }
     }
 
@@ -79,7 +110,7 @@ public class ManagedByte extends AbstractManagedData<Byte> {
     @Override
     public void fromBytes(MCDataInput input) {
         value = input.readByte();
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
@@ -90,7 +121,7 @@ public class ManagedByte extends AbstractManagedData<Byte> {
     @Override
     public void fromNBT(CompoundTag compound) {
         value = compound.getByte(name);
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
@@ -0,0 +1,132 @@
+package com.brandon3055.brandonscore.lib.datamanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Holds the managed data layout (names, indexes and flag partitions) that is common to every instance of a tile class.
+ * A single schema is shared by all {@link TileDataManager}s of the same tile class so each manager only needs to hold its data objects and dirty state.
+ * <p>
+ * If a manager registers data that does not match its class schema (e.g. data registered conditionally per instance)
+ * that manager switches to its own private schema.
+ */
+public class ManagedDataSchema {
+    private static final Map<Class<?>, ManagedDataSchema> CLASS_SCHEMAS = new ConcurrentHashMap<>();
+
+    public static final List<Predicate<DataFlags>> PARTITIONS = List.of(flags -> flags.saveNBT, flags -> flags.saveItem, flags -> flags.syncTile, flags -> flags.syncContainer, DataFlags::syncViaPacket);
+    public static final int P_SAVE_NBT = 0;
+    public static final int P_SAVE_ITEM = 1;
+    public static final int P_SYNC_TILE = 2;
+    public static final int P_SYNC_CONTAINER = 3;
+    public static final int P_SYNC_PACKET = 4;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameToIndex = new ConcurrentHashMap<>();
+    /**
+     * Built once from the first manager to request partitions and never replaced.
+     */
+    private volatile Partitions partitions = null;
+
+    public static ManagedDataSchema forClass(Class<?> clazz) {
+        return CLASS_SCHEMAS.computeIfAbsent(clazz, e -> new ManagedDataSchema());
+    }
+
+    /**
+     * Creates a private schema containing the given data.
+     */
+    public static ManagedDataSchema of(List<IManagedData> dataList) {
+        ManagedDataSchema schema = new ManagedDataSchema();
+        for (int i = 0; i < dataList.size(); i++) {
+            schema.accept(i, dataList.get(i).getName());
+        }
+        return schema;
+    }
+
+    /**
+     * Called when data is registered. If this is the first time this index has been seen it will be added to the schema.
+     *
+     * @return false if the given name does not match the name already assigned to this index.
+     */
+    public synchronized boolean accept(int index, String name) {
+        if (index == names.size()) {
+            names.add(name);
+            nameToIndex.putIfAbsent(name, index);
+            return true;
+        }
+        return index < names.size() && names.get(index).equals(name);
+    }
+
+    /**
+     * @return the index of the data with the given name or -1
+     */
+    public int indexOf(String name) {
+        return nameToIndex.getOrDefault(name, -1);
+    }
+
+    /**
+     * Returns the shared partitions. These are built from the given data if this is the first request, after which they never change.
+     * Managers must use {@link Partitions#matches(List)} to confirm their data matches before using them,
+     * and must use their own partitions if it does not.
+     */
+    public Partitions getPartitions(List<IManagedData> dataList) {
+        Partitions partitions = this.partitions;
+        if (partitions == null) {
+            synchronized (this) {
+                if (this.partitions == null) {
+                    this.partitions = new Partitions(dataList);
+                }
+                partitions = this.partitions;
+            }
+        }
+        return partitions;
+    }
+
+    public static int[][] buildPartitions(List<IManagedData> dataList) {
+        int[][] partitions = new int[PARTITIONS.size()][];
+        for (int i = 0; i < partitions.length; i++) {
+            Predicate<DataFlags> matcher = PARTITIONS.get(i);
+            partitions[i] = dataList.stream().filter(data -> matcher.test(data.flags())).mapToInt(IManagedData::getIndex).toArray();
+        }
+        return partitions;
+    }
+
+    /**
+     * An immutable partition table along with the data flags it was built from.
+     */
+    public static final class Partitions {
+        private final DataFlags[] flags;
+        private final int[][] indexes;
+
+        private Partitions(List<IManagedData> dataList) {
+            this.flags = new DataFlags[dataList.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = dataList.get(i).flags();
+            }
+            this.indexes = buildPartitions(dataList);
+        }
+
+        /**
+         * @param partition One of the P_ partition indexes.
+         * @return The indexes of all data matching the partition's flag in index order.
+         */
+        public int[] get(int partition) {
+            return indexes[partition];
+        }
+
+        /**
+         * @return true if the given data has the same count and flags as the data these partitions were built from.
+         */
+        public boolean matches(List<IManagedData> dataList) {
+            if (flags.length != dataList.size()) return false;
+            for (int i = 0; i < flags.length; i++) {
+                if (!flags[i].equals(dataList.get(i).flags())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -4,8 +4,12 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import net.minecraft.nbt.CompoundTag;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -13,7 +17,10 @@ import java.util.function.Function;
 public class ManagedDouble extends AbstractManagedData<Double> {
 
     private double value;
-    protected Function<Double, Double> validator = null;
+    protected DoubleUnaryOperator validator = null;
+    private List<DoubleConsumer> doubleListeners = Collections.emptyList();
+    private double syncPrecision = 0;
+    private DeltaCodec deltaCodec = null;
 
     public ManagedDouble(String name, double defaultValue, DataFlags... flags) {
         super(name, flags);
@@ -28,7 +35,7 @@ public class ManagedDouble extends AbstractManagedData<Double> {
     }
 
     public double set(double value) {
-        if (!Objects.equals(this.value, value)) {
+        if (Double.compare(this.value, value) != 0) {
             boolean set = true;
             double prev = this.value;
             this.value = value;
@@ -40,7 +47,7 @@ public class ManagedDouble extends AbstractManagedData<Double> {
 
             if (set) {
                 markDirty();
-                notifyListeners(value);
+                notifyValueListeners();
             }
             else {
                 this.value = prev;
@@ -60,27 +67,95 @@ public class ManagedDouble extends AbstractManagedData<Double> {
      * @param validator a validator function that takes an input, applies restrictions if needed then returns the updated value.
      * @return
      */
-    public ManagedDouble setValidator(Function<Double, Double> validator) {
+    public ManagedDouble setValidator(DoubleUnaryOperator validator) {
         this.validator = validator;
         return this;
     }
 
+    /**
+     * Sets the precision this value is synchronized with. When set the value is sent to the client as a variable length number of
+     * precision steps rather than a full double. e.g. a precision of 0.01 will sync a percentage value with two decimal places.
+     * If this data also has the {@link DataFlags#DELTA_SYNC} flag the steps are sent as deltas.
+     * Does not affect saving or values sent from the client.
+     *
+     * @param precision The sync precision. 0 to disable (default)
+     */
+    public ManagedDouble setSyncPrecision(double precision) {
+        this.syncPrecision = precision;
+        return this;
+    }
+
     @Override
     public void validate() {
         if (validator != null) {
-            value = validator.apply(value);
+            value = validator.applyAsDouble(value);
+        }
+    }
+
+    /**
+     * Primitive alternative to {@link #addValueListener(Consumer)} that does not box the value.
+     *
+     * @param listener A value listener
+     * @see #addValueListener(Consumer)
+     */
+    public void addDoubleListener(DoubleConsumer listener) {
+        if (doubleListeners.isEmpty()) {
+            doubleListeners = new ArrayList<>();
+        }
+        doubleListeners.add(listener);
+    }
+
+    public void removeDoubleListener(DoubleConsumer listener) {
+        doubleListeners.remove(listener);
+    }
+
+    private void notifyValueListeners() {
+        for (int i = 0; i < doubleListeners.size(); i++) {
+            doubleListeners.get(i).accept(value);
+        }
+        if (!valueListeners.isEmpty()) {
+            notifyListeners(value);
         }
     }
 
     @Override
     public void toBytes(MCDataOutput output) {
-        output.writeDouble(value);
+        writeBytes(output, false);
+    }
+
+    @Override
+    public void toBytesFull(MCDataOutput output) {
+        writeBytes(output, true);
+    }
+
+    private void writeBytes(MCDataOutput output, boolean full) {
+        //Values sent from the client are never quantized.
+        if (syncPrecision <= 0 || dataManager.isClientSide()) {
+            output.writeDouble(value);
+        } else if (flags.deltaSync) {
+            getDeltaCodec().write(output, Math.round(value / syncPrecision), full, false);
+        } else {
+            output.writeVarLong(DeltaCodec.zigZag(Math.round(value / syncPrecision)));
+        }
     }
 
     @Override
     public void fromBytes(MCDataInput input) {
-        value = input.readDouble();
-        notifyListeners(value);
+        if (syncPrecision <= 0 || !dataManager.isClientSide()) {
+            value = input.readDouble();
+        } else if (flags.deltaSync) {
+            value = (getDeltaCodec().read(input, Math.round(value / syncPrecision)) * syncPrecision);
+        } else {
+            value = (DeltaCodec.unZigZag(input.readVarLong()) * syncPrecision);
+        }
+        notifyValueListeners();
+    }
+
+    private DeltaCodec getDeltaCodec() {
+        if (deltaCodec == null) {
+            deltaCodec = new DeltaCodec();
+        }
+        return deltaCodec;
     }
 
     @Override
@@ -91,7 +166,7 @@ public class ManagedDouble extends AbstractManagedData<Double> {
     @Override
     public void fromNBT(CompoundTag compound) {
         value = compound.getDouble(name);
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
@@ -4,8 +4,12 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import net.minecraft.nbt.CompoundTag;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -13,7 +17,9 @@ import java.util.function.Function;
 public class ManagedInt extends AbstractManagedData<Integer> {
 
     private int value;
-    protected Function<Integer, Integer> validator = null;
+    protected IntUnaryOperator validator = null;
+    private List<IntConsumer> intListeners = Collections.emptyList();
+    private DeltaCodec deltaCodec = null;
 
     public ManagedInt(String name, int defaultValue, DataFlags... flags) {
         super(name, flags);
@@ -28,7 +34,7 @@ public class ManagedInt extends AbstractManagedData<Integer> {
     }
 
     public int set(int value) {
-        if (!Objects.equals(this.value, value)) {
+        if (this.value != value) {
             boolean set = true;
             int prev = this.value;
             this.value = value;
@@ -40,7 +46,7 @@ public class ManagedInt extends AbstractManagedData<Integer> {
 
             if (set) {
                 markDirty();
-                notifyListeners(value);
+                notifyValueListeners();
             }
             else {
                 this.value = prev;
@@ -60,7 +66,7 @@ public class ManagedInt extends AbstractManagedData<Integer> {
      * @param validator a validator function that takes an input, applies restrictions if needed then returns the updated value.
      * @return
      */
-    public ManagedInt setValidator(Function<Integer, Integer> validator) {
+    public ManagedInt setValidator(IntUnaryOperator validator) {
         this.validator = validator;
         return this;
     }
@@ -68,19 +74,69 @@ public class ManagedInt extends AbstractManagedData<Integer> {
     @Override
     public void validate() {
         if (validator != null) {
-            value = validator.apply(value);
+            value = validator.applyAsInt(value);
+        }
+    }
+
+    /**
+     * Primitive alternative to {@link #addValueListener(Consumer)} that does not box the value.
+     *
+     * @param listener A value listener
+     * @see #addValueListener(Consumer)
+     */
+    public void addIntListener(IntConsumer listener) {
+        if (intListeners.isEmpty()) {
+            intListeners = new ArrayList<>();
+        }
+        intListeners.add(listener);
+    }
+
+    public void removeIntListener(IntConsumer listener) {
+        intListeners.remove(listener);
+    }
+
+    private void notifyValueListeners() {
+        for (int i = 0; i < intListeners.size(); i++) {
+            intListeners.get(i).accept(value);
+        }
+        if (!valueListeners.isEmpty()) {
+            notifyListeners(value);
         }
     }
 
     @Override
     public void toBytes(MCDataOutput output) {
-        output.writeInt(value);
+        if (flags.deltaSync) {
+            getDeltaCodec().write(output, value, false, dataManager.isClientSide());
+        } else {
+            output.writeInt(value);
+        }
+    }
+
+    @Override
+    public void toBytesFull(MCDataOutput output) {
+        if (flags.deltaSync) {
+            getDeltaCodec().write(output, value, true, dataManager.isClientSide());
+        } else {
+            output.writeInt(value);
+        }
     }
 
     @Override
     public void fromBytes(MCDataInput input) {
-        value = input.readInt();
-        notifyListeners(value);
+        if (flags.deltaSync) {
+            value = (int) getDeltaCodec().read(input, value);
+        } else {
+            value = input.readInt();
+        }
+        notifyValueListeners();
+    }
+
+    private DeltaCodec getDeltaCodec() {
+        if (deltaCodec == null) {
+            deltaCodec = new DeltaCodec();
+        }
+        return deltaCodec;
     }
 
     @Override
@@ -91,7 +147,7 @@ public class ManagedInt extends AbstractManagedData<Integer> {
     @Override
     public void fromNBT(CompoundTag compound) {
         value = compound.getInt(name);
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
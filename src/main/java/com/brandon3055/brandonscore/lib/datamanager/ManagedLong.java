@@ -4,8 +4,12 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import net.minecraft.nbt.CompoundTag;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -13,7 +17,9 @@ import java.util.function.Function;
 public class ManagedLong extends AbstractManagedData<Long> {
 
     private long value;
-    protected Function<Long, Long> validator = null;
+    protected LongUnaryOperator validator = null;
+    private List<LongConsumer> longListeners = Collections.emptyList();
+    private DeltaCodec deltaCodec = null;
 
     public ManagedLong(String name, long defaultValue, DataFlags... flags) {
         super(name, flags);
@@ -28,7 +34,7 @@ public class ManagedLong extends AbstractManagedData<Long> {
     }
 
     public long set(long value) {
-        if (!Objects.equals(this.value, value)) {
+        if (this.value != value) {
             boolean set = true;
             long prev = this.value;
             this.value = value;
@@ -40,7 +46,7 @@ public class ManagedLong extends AbstractManagedData<Long> {
 
             if (set) {
                 markDirty();
-                notifyListeners(value);
+                notifyValueListeners();
             }
             else {
                 this.value = prev;
@@ -60,7 +66,7 @@ public class ManagedLong extends AbstractManagedData<Long> {
      * @param validator a validator function that takes an input, applies restrictions if needed then returns the updated value.
      * @return
      */
-    public ManagedLong setValidator(Function<Long, Long> validator) {
+    public ManagedLong setValidator(LongUnaryOperator validator) {
         this.validator = validator;
         return this;
     }
@@ -68,19 +74,69 @@ public class ManagedLong extends AbstractManagedData<Long> {
     @Override
     public void validate() {
         if (validator != null) {
-            value = validator.apply(value);
+            value = validator.applyAsLong(value);
+        }
+    }
+
+    /**
+     * Primitive alternative to {@link #addValueListener(Consumer)} that does not box the value.
+     *
+     * @param listener A value listener
+     * @see #addValueListener(Consumer)
+     */
+    public void addLongListener(LongConsumer listener) {
+        if (longListeners.isEmpty()) {
+            longListeners = new ArrayList<>();
+        }
+        longListeners.add(listener);
+    }
+
+    public void removeLongListener(LongConsumer listener) {
+        longListeners.remove(listener);
+    }
+
+    private void notifyValueListeners() {
+        for (int i = 0; i < longListeners.size(); i++) {
+            longListeners.get(i).accept(value);
+        }
+        if (!valueListeners.isEmpty()) {
+            notifyListeners(value);
         }
     }
 
     @Override
     public void toBytes(MCDataOutput output) {
-        output.writeLong(value);
+        if (flags.deltaSync) {
+            getDeltaCodec().write(output, value, false, dataManager.isClientSide());
+        } else {
+            output.writeLong(value);
+        }
+    }
+
+    @Override
+    public void toBytesFull(MCDataOutput output) {
+        if (flags.deltaSync) {
+            getDeltaCodec().write(output, value, true, dataManager.isClientSide());
+        } else {
+            output.writeLong(value);
+        }
     }
 
     @Override
     public void fromBytes(MCDataInput input) {
-        value = input.readLong();
-        notifyListeners(value);
+        if (flags.deltaSync) {
+            value = getDeltaCodec().read(input, value);
+        } else {
+            value = input.readLong();
+        }
+        notifyValueListeners();
+    }
+
+    private DeltaCodec getDeltaCodec() {
+        if (deltaCodec == null) {
+            deltaCodec = new DeltaCodec();
+        }
+        return deltaCodec;
     }
 
     @Override
@@ -91,7 +147,7 @@ public class ManagedLong extends AbstractManagedData<Long> {
     @Override
     public void fromNBT(CompoundTag compound) {
         value = compound.getLong(name);
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
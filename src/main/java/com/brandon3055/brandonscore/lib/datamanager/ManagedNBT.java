@@ -75,6 +75,11 @@ public class ManagedNBT extends AbstractManagedData<CompoundTag> {
         }
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return true;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
         if (lastValue != null && !lastValue.equals(value)) {
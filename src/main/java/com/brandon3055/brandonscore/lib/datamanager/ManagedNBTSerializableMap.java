@@ -2,8 +2,8 @@ package com.brandon3055.brandonscore.lib.datamanager;
 
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
+import com.brandon3055.brandonscore.lib.IChangeVersioned;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.Tag;
 import net.minecraftforge.common.util.INBTSerializable;
 
 import java.util.ArrayList;
@@ -15,16 +15,20 @@ import java.util.Map;
  * This is only used for synchronization purposes though it could theoretically be used to save values as well.
  */
 @Deprecated //Avoid if possible
-public class ManagedNBTSerializableMap extends AbstractManagedData {
+public class ManagedNBTSerializableMap extends AbstractManagedData implements IChangeVersioned {
 
     private Map<String, INBTSerializable<CompoundTag>> valueMap;
-    private Map<String, Tag> lastValueMap;
+    /**
+     * Holds the last seen {@link IChangeVersioned} version for values that support it, or the last serialized value for values that do not.
+     */
+    private Map<String, Object> lastValueMap;
+    private long changeVersion = 0;
 
     public ManagedNBTSerializableMap(String name, Map<String, INBTSerializable<CompoundTag>> serializableMap, DataFlags... flags) {
         super(name, flags);
         this.valueMap = serializableMap;
         lastValueMap = new HashMap<>();
-        serializableMap.forEach((key, value) -> lastValueMap.put(key, value.serializeNBT()));
+        updateLastValues();
     }
 
     public Map<String, INBTSerializable<CompoundTag>> get() {
@@ -34,15 +38,17 @@ public class ManagedNBTSerializableMap extends AbstractManagedData {
     @Override
     public void validate() {}
 
+    @Override
+    public boolean requiresPolling() {
+        return true;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
-        if (lastValueMap != null && (lastValueMap.size() != valueMap.size() || (valueMap.entrySet().stream().anyMatch(entry -> {
-            Tag base = lastValueMap.get(entry.getKey());
-            return base == null || !(base.equals(entry.getValue().serializeNBT()));
-        })))) {
+        if (lastValueMap != null && hasChanged()) {
             if (reset) {
-                lastValueMap.clear();
-                valueMap.forEach((key, value) -> lastValueMap.put(key, value.serializeNBT()));
+                changeVersion++;
+                updateLastValues();
             }
             return true;
         }
@@ -50,6 +56,34 @@ public class ManagedNBTSerializableMap extends AbstractManagedData {
         return super.isDirty(reset);
     }
 
+    private boolean hasChanged() {
+        if (lastValueMap.size() != valueMap.size()) return true;
+        for (Map.Entry<String, INBTSerializable<CompoundTag>> entry : valueMap.entrySet()) {
+            Object last = lastValueMap.get(entry.getKey());
+            if (last == null || !last.equals(getLastValue(entry.getValue()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateLastValues() {
+        lastValueMap.clear();
+        valueMap.forEach((key, value) -> lastValueMap.put(key, getLastValue(value)));
+    }
+
+    private static Object getLastValue(INBTSerializable<CompoundTag> value) {
+        return value instanceof IChangeVersioned versioned ? (Object) versioned.getChangeVersion() : value.serializeNBT();
+    }
+
+    /**
+     * Incremented when a change is detected via {@link #isDirty(boolean)} or when new values are received.
+     */
+    @Override
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
     @Override
     public void toBytes(MCDataOutput output) {
         output.writeVarInt(valueMap.size());
@@ -66,8 +100,8 @@ public class ManagedNBTSerializableMap extends AbstractManagedData {
                 valueMap.get(name).deserializeNBT(nbt);
             }
         }
-        lastValueMap.clear();
-        valueMap.forEach((key, value) -> lastValueMap.put(key, value.serializeNBT()));
+        changeVersion++;
+        updateLastValues();
     }
 
     @Override
@@ -85,8 +119,8 @@ public class ManagedNBTSerializableMap extends AbstractManagedData {
                 valueMap.get(name).deserializeNBT(tags.getCompound(name));
             }
         }
-        lastValueMap.clear();
-        valueMap.forEach((key, value) -> lastValueMap.put(key, value.serializeNBT()));
+        changeVersion++;
+        updateLastValues();
     }
 
     @Override
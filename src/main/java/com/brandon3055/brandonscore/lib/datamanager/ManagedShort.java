@@ -4,8 +4,12 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import net.minecraft.nbt.CompoundTag;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -13,7 +17,8 @@ import java.util.function.Function;
 public class ManagedShort extends AbstractManagedData<Short> {
 
     private short value;
-    protected Function<Short, Short> validator = null;
+    protected IntUnaryOperator validator = null;
+    private List<IntConsumer> intListeners = Collections.emptyList();
 
     public ManagedShort(String name, short defaultValue, DataFlags... flags) {
         super(name, flags);
@@ -28,7 +33,7 @@ public class ManagedShort extends AbstractManagedData<Short> {
     }
 
     public short set(short value) {
-        if (!Objects.equals(this.value, value)) {
+        if (this.value != value) {
             boolean set = true;
             short prev = this.value;
             this.value = value;
@@ -40,7 +45,7 @@ public class ManagedShort extends AbstractManagedData<Short> {
 
             if (set) {
                 markDirty();
-                notifyListeners(value);
+                notifyValueListeners();
             }
             else {
                 this.value = prev;
@@ -60,7 +65,7 @@ public class ManagedShort extends AbstractManagedData<Short> {
      * @param validator a validator function that takes an input, applies restrictions if needed then returns the updated value.
      * @return
      */
-    public ManagedShort setValidator(Function<Short, Short> validator) {
+    public ManagedShort setValidator(IntUnaryOperator validator) {
         this.validator = validator;
         return this;
     }
@@ -68,7 +73,33 @@ public class ManagedShort extends AbstractManagedData<Short> {
     @Override
     public void validate() {
         if (validator != null) {
-            value = validator.apply(value);
+            value = (short) validator.applyAsInt(value);
+        }
+    }
+
+    /**
+     * Primitive alternative to {@link #addValueListener(Consumer)} that does not box the value.
+     *
+     * @param listener A value listener
+     * @see #addValueListener(Consumer)
+     */
+    public void addIntListener(IntConsumer listener) {
+        if (intListeners.isEmpty()) {
+            intListeners = new ArrayList<>();
+        }
+        intListeners.add(listener);
+    }
+
+    public void removeIntListener(IntConsumer listener) {
+        intListeners.remove(listener);
+    }
+
+    private void notifyValueListeners() {
+        for (int i = 0; i < intListeners.size(); i++) {
+            intListeners.get(i).accept(value);
+        }
+        if (!valueListeners.isEmpty()) {
+            notifyListeners(value);
         }
     }
 
@@ -80,7 +111,7 @@ public class ManagedShort extends AbstractManagedData<Short> {
     @Override
     public void fromBytes(MCDataInput input) {
         value = input.readShort();
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
@@ -91,7 +122,7 @@ public class ManagedShort extends AbstractManagedData<Short> {
     @Override
     public void fromNBT(CompoundTag compound) {
         value = compound.getShort(name);
-        notifyListeners(value);
+        notifyValueListeners();
     }
 
     @Override
@@ -77,6 +77,11 @@ public class ManagedStack extends AbstractManagedData<ItemStack> {
         }
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return true;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
         if (lastValue != null && !lastValue.equals(value)) {
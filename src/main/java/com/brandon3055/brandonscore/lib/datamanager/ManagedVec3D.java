@@ -79,6 +79,11 @@ public class ManagedVec3D extends AbstractManagedData<Vec3D> {
         }
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return true;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
         if (lastValue != null && !lastValue.equals(value)) {
@@ -79,6 +79,11 @@ public class ManagedVec3I extends AbstractManagedData<Vec3I> {
         }
     }
 
+    @Override
+    public boolean requiresPolling() {
+        return true;
+    }
+
     @Override
     public boolean isDirty(boolean reset) {
         if (lastValue != null && !lastValue.equals(value)) {
@@ -0,0 +1,43 @@
+package com.brandon3055.brandonscore.lib.datamanager;
+
+/**
+ * Distance based sync level of detail for {@link DataFlags#SYNC_TILE} data. Applied via {@link TileDataManager#setSyncLOD(SyncLOD)}
+ * <p>
+ * Players within {@link #nearRange} blocks receive every update.
+ * Players within {@link #farRange} blocks receive all changes batched every {@link #midInterval} ticks.
+ * Players further away only receive data flagged with {@link DataFlags#SYNC_CRITICAL}.
+ * When a player moves into a closer range they are sent a full sync.
+ */
+public class SyncLOD {
+    public static final int NEAR = 0;
+    public static final int MID = 1;
+    public static final int FAR = 2;
+
+    public final double nearRange;
+    public final double farRange;
+    public final int midInterval;
+
+    /**
+     * @param nearRange   Players within this many blocks receive every update.
+     * @param farRange    Players within this many blocks receive throttled updates.
+     * @param midInterval Ticks between updates for mid range players.
+     */
+    public SyncLOD(double nearRange, double farRange, int midInterval) {
+        if (farRange < nearRange || midInterval < 1) {
+            throw new IllegalArgumentException("Invalid sync LOD, farRange must be >= nearRange and midInterval must be > 0");
+        }
+        this.nearRange = nearRange;
+        this.farRange = farRange;
+        this.midInterval = midInterval;
+    }
+
+    /**
+     * @param distanceSq The squared distance between the player and the tile.
+     * @return The LOD tier for the given distance. {@link #NEAR}, {@link #MID} or {@link #FAR}
+     */
+    public int getTier(double distanceSq) {
+        if (distanceSq <= nearRange * nearRange) return NEAR;
+        if (distanceSq <= farRange * farRange) return MID;
+        return FAR;
+    }
+}
@@ -1,7 +1,9 @@
 package com.brandon3055.brandonscore.lib.datamanager;
 
 import codechicken.lib.data.MCDataInput;
+import codechicken.lib.data.MCDataOutput;
 import codechicken.lib.packet.PacketCustom;
+import com.brandon3055.brandonscore.BCConfig;
 import com.brandon3055.brandonscore.BrandonsCore;
 import com.brandon3055.brandonscore.api.TimeKeeper;
 import com.brandon3055.brandonscore.blocks.BlockBCore;
@@ -9,18 +11,26 @@ import com.brandon3055.brandonscore.inventory.ContainerBCTile;
 import com.brandon3055.brandonscore.inventory.ContainerBCore;
 import com.brandon3055.brandonscore.lib.DelayedTask;
 import com.brandon3055.brandonscore.network.BCoreNetwork;
+import com.brandon3055.brandonscore.network.TileSyncCoalescer;
 import com.brandon3055.brandonscore.utils.DataUtils;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.Vec3;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static com.brandon3055.brandonscore.lib.datamanager.ManagedDataSchema.*;
 
 /**
  * Created by brandon3055 on 12/06/2017.
@@ -29,19 +39,94 @@ import java.util.List;
 @SuppressWarnings("DuplicatedCode")
 public class TileDataManager<T extends BlockEntity & IDataManagerProvider> implements IDataManager {
 
-    protected LinkedList<IManagedData> managedDataList = new LinkedList<>();
+    private static final Predicate<DataFlags> SYNC_TILE = flags -> flags.syncTile;
+    private static final Predicate<DataFlags> SYNC_CONTAINER = flags -> flags.syncContainer;
+    private static final Predicate<DataFlags> SYNC_ON_SET = flags -> flags.syncOnSet;
+
+    /**
+     * All registered data. A data object's index is its position in this list.
+     */
+    protected List<IManagedData> managedDataList = new ArrayList<>();
     public final T tile;
+    /**
+     * Shared by all managers of the same tile class unless this manager's data diverges from the class schema.
+     */
+    private ManagedDataSchema schema;
+    /**
+     * Only set if this manager's data does not match the schema's shared partitions.
+     */
+    private int[][] privatePartitions = null;
+    /**
+     * The shared partitions this manager has confirmed match its data.
+     */
+    private ManagedDataSchema.Partitions verifiedPartitions = null;
+    /**
+     * Dirty data is tracked per sync category using the data index so change detection only needs to visit data that has actually changed.
+     * These and the other bit sets below are only allocated once they are first needed. Most tiles never use some of them.
+     */
+    private BitSet dirtyTile = null;
+    private BitSet dirtyContainer = null;
+    private BitSet dirtySyncOnSet = null;
+    /**
+     * {@link DataFlags#DELTA_SYNC} data that was sent as a delta last tick.
+     * When such data stops changing it is sent once more as a full update so clients that could not apply the last delta
+     * (e.g. started tracking the tile after the last keyframe) do not keep a stale value.
+     */
+    private BitSet deltaSent = null;
+    /**
+     * Data that has changed but is waiting for its sync interval to elapse.
+     *
+     * @see IManagedData#getSyncInterval()
+     */
+    private BitSet throttled = null;
+    private int[] lastSyncTick = null;
+    private SyncLOD syncLOD = null;
+    /**
+     * The LOD tier each tracking player was in when tiers were last evaluated.
+     */
+    private Object2IntMap<UUID> lodTiers = null;
+    /**
+     * Data that has changed since mid range players were last updated.
+     */
+    private BitSet lodPendingMid = null;
+    private boolean lodWithheldFar = false;
+    /**
+     * Data that can change without being marked dirty and therefore must be polled every tick.
+     *
+     * @see IManagedData#requiresPolling()
+     */
+    private List<IManagedData> polledData = Collections.emptyList();
+    private int lastListenerSync = -1;
     private int lastDirty = -9999;
     private int maxSaveInterval = 0;
+    /**
+     * Delayed sync on set packets that have not been sent yet. Cancelled if the tile is unloaded.
+     */
+    private List<DelayedTask.Task> pendingTasks = Collections.emptyList();
 
     public TileDataManager(T tile) {
         this.tile = tile;
+        this.schema = ManagedDataSchema.forClass(tile.getClass());
     }
 
     public void setMaxSaveInterval(int maxSaveInterval) {
         this.maxSaveInterval = maxSaveInterval;
     }
 
+    /**
+     * Enables distance based sync level of detail for this tile's {@link DataFlags#SYNC_TILE} data.
+     * Tiles using this are not included in coalesced chunk sync packets as each player may receive different data.
+     *
+     * @param syncLOD The LOD policy or null to sync everything to every tracking player (default)
+     * @see SyncLOD
+     */
+    public void setSyncLOD(@Nullable SyncLOD syncLOD) {
+        this.syncLOD = syncLOD;
+        this.lodTiers = null;
+        this.lodPendingMid = syncLOD == null ? null : new BitSet();
+        this.lodWithheldFar = false;
+    }
+
     /**
      * Use this to create, Configure and register your Managed Data Objects<br>
      * Example Registration:<br><br>
@@ -52,43 +137,308 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
      * @return Returns a generified data options class. Set the flags you need then call finish to get your shiny new ManagedData object!
      */
     public <M extends IManagedData> M register(M managedData) {
-        managedData.init(this, managedDataList.size());
+        int index = managedDataList.size();
+        managedData.init(this, index);
         managedDataList.add(managedData);
+        if (!schema.accept(index, managedData.getName())) {
+            schema = ManagedDataSchema.of(managedDataList);
+        }
+        invalidatePartitions();
+        if (managedData.requiresPolling()) {
+            if (polledData.isEmpty()) polledData = new ArrayList<>();
+            polledData.add(managedData);
+        } else {
+            //New data is always dirty.
+            setDirtyBits(managedData);
+        }
         return managedData;
     }
 
     /**
      * Use this to detect and send changes to the client via your own sync packet. See {@link TileDataManager} for an example
      * This should be called by your tile, container, etc every tick.
+     * All dirty data is written to a single batched sync packet.
      */
     @Override
     public void detectAndSendChanges() {
-        for (IManagedData data : managedDataList) {
-            if (data.flags().syncTile && data.isDirty(true)) {
-                PacketCustom syncPacket = createSyncPacket();
-                syncPacket.writeByte((byte) data.getIndex());
-                data.toBytes(syncPacket);
-                syncPacket.sendToChunk(tile);
+        pollChanges();
+        List<IManagedData> dirty = pollDirty(dirtyTile, SYNC_TILE);
+        if (dirty != null || (throttled != null && !throttled.isEmpty())) {
+            dirty = applySyncIntervals(dirty);
+        }
+        if (deltaSent != null) {
+            sendSettledDeltas(dirty);
+        }
+        if (syncLOD != null) {
+            sendWithLOD(dirty);
+        } else if (dirty != null) {
+            if (BCConfig.coalesceTileSync) {
+                TileSyncCoalescer.queue(this, dirty);
+            } else {
+                createBatchPacket(dirty).sendToChunk(tile);
+            }
+        }
+        if (dirty != null) {
+            for (IManagedData data : dirty) {
+                if (data.flags().deltaSync) deltaSent = setBit(deltaSent, data.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Sends changes to each tracking player according to their {@link SyncLOD} tier.
+     * Near players receive the normal (possibly delta encoded) update. Mid and far players receive full updates
+     * because they do not receive every keyframe.
+     */
+    private void sendWithLOD(@Nullable List<IManagedData> dirty) {
+        int tick = TimeKeeper.getServerTick();
+        boolean midTick = Math.floorMod(tick + tile.getBlockPos().hashCode(), syncLOD.midInterval) == 0;
+        if (dirty != null) {
+            for (IManagedData data : dirty) {
+                lodPendingMid.set(data.getIndex());
+                lodWithheldFar |= !data.flags().syncCritical;
+            }
+        } else if (!midTick || (lodPendingMid.isEmpty() && !lodWithheldFar)) {
+            return;
+        }
+
+        ServerLevel level = (ServerLevel) tile.getLevel();
+        List<ServerPlayer> players = level.getChunkSource().chunkMap.getPlayers(new ChunkPos(tile.getBlockPos()), false);
+        Object2IntMap<UUID> tiers = new Object2IntOpenHashMap<>();
+        PacketCustom nearPacket = null;
+        PacketCustom midPacket = null;
+        PacketCustom farPacket = null;
+        boolean farBuilt = false;
+        boolean hasFar = false;
+        Vec3 center = Vec3.atCenterOf(tile.getBlockPos());
+
+        for (ServerPlayer player : players) {
+            int tier = syncLOD.getTier(player.distanceToSqr(center));
+            int prevTier = lodTiers == null ? tier : lodTiers.getOrDefault(player.getUUID(), tier);
+            tiers.put(player.getUUID(), tier);
+            hasFar |= tier == SyncLOD.FAR;
+
+            if (tier < prevTier) {
+                //Player has moved closer and may have missed updates.
+                List<IManagedData> toSync = getPartitionData(P_SYNC_TILE);
+                if (!toSync.isEmpty()) {
+                    createBatchPacket(toSync, true).sendToPlayer(player);
+                }
+            } else if (tier == SyncLOD.NEAR) {
+                if (dirty == null) continue;
+                if (nearPacket == null) nearPacket = createBatchPacket(dirty);
+                nearPacket.sendToPlayer(player);
+            } else if (tier == SyncLOD.MID) {
+                if (!midTick || lodPendingMid.isEmpty()) continue;
+                if (midPacket == null) {
+                    List<IManagedData> toSync = new ArrayList<>();
+                    for (int i = lodPendingMid.nextSetBit(0); i >= 0; i = lodPendingMid.nextSetBit(i + 1)) {
+                        toSync.add(managedDataList.get(i));
+                    }
+                    midPacket = createBatchPacket(toSync, true);
+                }
+                midPacket.sendToPlayer(player);
+            } else if (dirty != null) {
+                if (!farBuilt) {
+                    farBuilt = true;
+                    List<IManagedData> critical = new ArrayList<>();
+                    DataUtils.addIf(dirty, critical, data -> data.flags().syncCritical);
+                    farPacket = critical.isEmpty() ? null : createBatchPacket(critical, true);
+                }
+                if (farPacket != null) farPacket.sendToPlayer(player);
+            }
+        }
+
+        lodTiers = tiers;
+        if (midTick) lodPendingMid.clear();
+        if (!hasFar) lodWithheldFar = false;
+    }
+
+    /**
+     * Removes data that was synced too recently from the dirty list and adds throttled data whose interval has elapsed.
+     *
+     * @return The data to sync this tick or null if there is nothing to sync.
+     */
+    @Nullable
+    private List<IManagedData> applySyncIntervals(@Nullable List<IManagedData> dirty) {
+        int tick = TimeKeeper.getServerTick();
+        List<IManagedData> toSync = null;
+        if (dirty != null) {
+            for (IManagedData data : dirty) {
+                if (data.getSyncInterval() > 0 && !checkSyncInterval(data, tick)) {
+                    throttled = setBit(throttled, data.getIndex());
+                    continue;
+                }
+                if (toSync == null) toSync = new ArrayList<>();
+                toSync.add(data);
+            }
+        }
+
+        if (throttled == null) return toSync;
+        for (int i = throttled.nextSetBit(0); i >= 0; i = throttled.nextSetBit(i + 1)) {
+            IManagedData data = managedDataList.get(i);
+            if (checkSyncInterval(data, tick)) {
+                if (toSync == null) toSync = new ArrayList<>();
+                toSync.add(data);
+            }
+        }
+        return toSync;
+    }
+
+    /**
+     * @return true if the data's sync interval has elapsed, in which case its last sync time is updated and it is removed from the throttled set.
+     */
+    private boolean checkSyncInterval(IManagedData data, int tick) {
+        int index = data.getIndex();
+        if (lastSyncTick == null || lastSyncTick.length <= index) {
+            int oldLength = lastSyncTick == null ? 0 : lastSyncTick.length;
+            lastSyncTick = lastSyncTick == null ? new int[managedDataList.size()] : Arrays.copyOf(lastSyncTick, managedDataList.size());
+            Arrays.fill(lastSyncTick, oldLength, lastSyncTick.length, -9999);
+        }
+        if (tick - lastSyncTick[index] < data.getSyncInterval()) {
+            return false;
+        }
+        lastSyncTick[index] = tick;
+        if (throttled != null) throttled.clear(index);
+        return true;
+    }
+
+    private void sendSettledDeltas(@Nullable List<IManagedData> dirty) {
+        BitSet settled = deltaSent;
+        deltaSent = null;
+        //Data waiting on its sync interval has not settled.
+        if (throttled != null) settled.andNot(throttled);
+        if (dirty != null) {
+            for (IManagedData data : dirty) settled.clear(data.getIndex());
+        }
+        if (settled.isEmpty()) return;
+
+        List<IManagedData> toSync = new ArrayList<>();
+        for (int i = settled.nextSetBit(0); i >= 0; i = settled.nextSetBit(i + 1)) {
+            toSync.add(managedDataList.get(i));
+        }
+        //With LOD only near players receive deltas. Everyone else already receives full updates.
+        sendFullUpdate(toSync, true);
+    }
+
+    /**
+     * Sends a full update of the given {@link DataFlags#SYNC_TILE} data to all tracking players.
+     * If a {@link SyncLOD} is set, players are filtered by tier the same way as {@link #sendWithLOD(List)}.
+     * Far players only receive {@link DataFlags#SYNC_CRITICAL} data.
+     *
+     * @param nearOnly If LOD is enabled, only send to near players.
+     */
+    private void sendFullUpdate(List<IManagedData> toSync, boolean nearOnly) {
+        if (syncLOD == null) {
+            createBatchPacket(toSync, true).sendToChunk(tile);
+            return;
+        }
+
+        ServerLevel level = (ServerLevel) tile.getLevel();
+        List<ServerPlayer> players = level.getChunkSource().chunkMap.getPlayers(new ChunkPos(tile.getBlockPos()), false);
+        PacketCustom packet = null;
+        PacketCustom farPacket = null;
+        boolean farBuilt = false;
+        Vec3 center = Vec3.atCenterOf(tile.getBlockPos());
+
+        for (ServerPlayer player : players) {
+            int tier = syncLOD.getTier(player.distanceToSqr(center));
+            if (tier == SyncLOD.NEAR || (tier == SyncLOD.MID && !nearOnly)) {
+                if (packet == null) packet = createBatchPacket(toSync, true);
+                packet.sendToPlayer(player);
+            } else if (tier == SyncLOD.FAR && !nearOnly) {
+                if (!farBuilt) {
+                    farBuilt = true;
+                    List<IManagedData> critical = new ArrayList<>();
+                    DataUtils.addIf(toSync, critical, data -> data.flags().syncCritical);
+                    farPacket = critical.isEmpty() ? null : createBatchPacket(critical, true);
+                }
+                if (farPacket != null) farPacket.sendToPlayer(player);
             }
         }
     }
 
     /**
      * This method is called each tick by {@link ContainerBCore} to sent updates to container listeners.
+     * When multiple players have the container open this is called once per container but only the first call each tick does anything.
+     * Changes are encoded once into a single packet which is then sent to every listener.
+     * Players that open the container later receive a full sync via {@link #forcePlayerSync(ServerPlayer)}
      *
      * @param listeners The list of container listeners.
      */
     public void detectAndSendChangesToListeners(Collection<Player> listeners) {
-        for (IManagedData data : managedDataList) {
-            if (data.flags().syncContainer && data.isDirty(true)) {
-                PacketCustom syncPacket = createSyncPacket();
-                syncPacket.writeByte((byte) data.getIndex());
-                data.toBytes(syncPacket);
-                DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> syncPacket.sendToPlayer((ServerPlayer) p));
+        int tick = TimeKeeper.getServerTick();
+        if (tick == lastListenerSync) return;
+        lastListenerSync = tick;
+
+        pollChanges();
+        List<IManagedData> dirty = pollDirty(dirtyContainer, SYNC_CONTAINER);
+        if (dirty != null) {
+            PacketCustom syncPacket = createBatchPacket(dirty, true);
+            DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> syncPacket.sendToPlayer((ServerPlayer) p));
+        }
+    }
+
+    /**
+     * Collects and clears all dirty data in the given category. {@link #pollChanges()} must be called first.
+     *
+     * @param dirtyBits The dirty set for the sync category, may be null if nothing in this category has been marked dirty.
+     * @param category  Checks the data belongs to this sync category.
+     * @return A list of dirty data or null if nothing has changed.
+     */
+    @Nullable
+    private List<IManagedData> pollDirty(@Nullable BitSet dirtyBits, Predicate<DataFlags> category) {
+        if (dirtyBits == null) return null;
+        List<IManagedData> dirty = null;
+        for (int i = dirtyBits.nextSetBit(0); i >= 0; i = dirtyBits.nextSetBit(i + 1)) {
+            IManagedData data = managedDataList.get(i);
+            if (category.test(data.flags())) {
+                data.isDirty(true);
+                if (dirty == null) dirty = new ArrayList<>();
+                dirty.add(data);
+            }
+        }
+        dirtyBits.clear();
+        return dirty;
+    }
+
+    /**
+     * Checks data that must be polled for changes and marks it dirty in every sync category it belongs to.
+     * Polled data only has a single dirty flag so this ensures a change is not consumed by whichever category happens to poll first.
+     */
+    private void pollChanges() {
+        for (IManagedData data : polledData) {
+            if (data.isDirty(true)) {
+                setDirtyBits(data);
             }
         }
     }
 
+    @Override
+    public void onDataDirty(IManagedData data) {
+        if (data.requiresPolling()) return;
+        setDirtyBits(data);
+    }
+
+    private void setDirtyBits(IManagedData data) {
+        int index = data.getIndex();
+        DataFlags flags = data.flags();
+        if (flags.syncTile) dirtyTile = setBit(dirtyTile, index);
+        if (flags.syncContainer) dirtyContainer = setBit(dirtyContainer, index);
+        if (flags.syncOnSet) dirtySyncOnSet = setBit(dirtySyncOnSet, index);
+    }
+
+    /**
+     * Sets a bit in a lazily allocated bit set.
+     *
+     * @return The given bit set, or a new one if it was null.
+     */
+    private static BitSet setBit(@Nullable BitSet bits, int index) {
+        if (bits == null) bits = new BitSet();
+        bits.set(index);
+        return bits;
+    }
+
     /**
      * You may want to call this when the player opens a container is you have data that is only synced by the container and does not update often.
      * This may be required because normally data only syncs when it changes so if your container data isnt constantly changing the client
@@ -96,49 +446,39 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
      */
     public void forceContainerSync(List<ContainerListener> listeners) {
         if (!tile.getLevel().isClientSide) {
-            for (IManagedData data : managedDataList) {
-                if (data.flags().syncContainer) {
-                    PacketCustom syncPacket = createSyncPacket();
-                    syncPacket.writeByte((byte) data.getIndex());
-                    data.toBytes(syncPacket);
-                    DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> syncPacket.sendToPlayer((ServerPlayer) p));
-                }
+            List<IManagedData> toSync = getPartitionData(P_SYNC_CONTAINER);
+            if (!toSync.isEmpty()) {
+                PacketCustom syncPacket = createBatchPacket(toSync, true);
+                DataUtils.forEachMatch(listeners, p -> p instanceof ServerPlayer, p -> syncPacket.sendToPlayer((ServerPlayer) p));
             }
         }
     }
 
     public void forceSync() {
         if (!tile.getLevel().isClientSide) {
-            for (IManagedData data : managedDataList) {
-                if (data.flags().syncTile) {
-                    PacketCustom syncPacket = createSyncPacket();
-                    syncPacket.writeByte((byte) data.getIndex());
-                    data.toBytes(syncPacket);
-                    syncPacket.sendToChunk(tile);
-                }
+            List<IManagedData> toSync = getPartitionData(P_SYNC_TILE);
+            if (!toSync.isEmpty()) {
+                sendFullUpdate(toSync, false);
             }
         }
     }
 
     public void forcePlayerSync(ServerPlayer player) {
         if (!tile.getLevel().isClientSide) {
-            for (IManagedData data : managedDataList) {
-                if (data.flags().syncContainer) {
-                    PacketCustom syncPacket = createSyncPacket();
-                    syncPacket.writeByte((byte) data.getIndex());
-                    data.toBytes(syncPacket);
-                    syncPacket.sendToPlayer(player);
-                }
+            List<IManagedData> toSync = getPartitionData(P_SYNC_CONTAINER);
+            if (!toSync.isEmpty()) {
+                createBatchPacket(toSync, true).sendToPlayer(player);
             }
         }
     }
 
     public void forceSync(IManagedData data) {
         if (!tile.getLevel().isClientSide) {
-            PacketCustom syncPacket = createSyncPacket();
-            syncPacket.writeByte((byte) data.getIndex());
-            data.toBytes(syncPacket);
-            syncPacket.sendToChunk(tile);
+            if (data.flags().syncTile) {
+                sendFullUpdate(Collections.singletonList(data), false);
+            } else {
+                createBatchPacket(Collections.singletonList(data), true).sendToChunk(tile);
+            }
         }
     }
 
@@ -149,33 +489,115 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
         return packet;
     }
 
+    /**
+     * Creates a sync packet containing all of the given data objects.
+     * Format: [pos][varInt count] then [byte index][data] for each data object.
+     */
+    protected PacketCustom createBatchPacket(Collection<IManagedData> dataList) {
+        return createBatchPacket(dataList, false);
+    }
+
+    /**
+     * @param full If true data is written using {@link IManagedData#toBytesFull(MCDataOutput)}.
+     *             This must be used for anything that is not sent to every player tracking the tile.
+     */
+    protected PacketCustom createBatchPacket(Collection<IManagedData> dataList, boolean full) {
+        PacketCustom packet = createSyncPacket();
+        writeBatch(packet, dataList, full);
+        return packet;
+    }
+
+    /**
+     * Writes the given data objects in the format expected by {@link #receiveSyncData(MCDataInput)}
+     */
+    public void writeBatch(MCDataOutput output, Collection<IManagedData> dataList) {
+        writeBatch(output, dataList, false);
+    }
+
+    public void writeBatch(MCDataOutput output, Collection<IManagedData> dataList, boolean full) {
+        output.writeVarInt(dataList.size());
+        for (IManagedData data : dataList) {
+            output.writeByte((byte) data.getIndex());
+            if (full) {
+                data.toBytesFull(output);
+            } else {
+                data.toBytes(output);
+            }
+        }
+    }
+
     @Override
     public void receiveSyncData(MCDataInput input) {
-        int index = input.readByte() & 0xFF;
-        IManagedData data = getDataByIndex(index);
-        if (data != null) {
+        int count = input.readVarInt();
+        boolean triggerUpdate = false;
+        for (int i = 0; i < count; i++) {
+            int index = input.readByte() & 0xFF;
+            IManagedData data = getDataByIndex(index);
+            if (data == null) {
+                //Can not determine the length of unknown data so the remainder of this batch is unreadable.
+                break;
+            }
             data.fromBytes(input);
-            if (data.flags().triggerUpdate) {
-                BlockState state = tile.getLevel().getBlockState(tile.getBlockPos());
-                tile.getLevel().sendBlockUpdated(tile.getBlockPos(), state, state, 3);
+            triggerUpdate |= data.flags().triggerUpdate;
+        }
+
+        if (triggerUpdate) {
+            BlockState state = tile.getLevel().getBlockState(tile.getBlockPos());
+            tile.getLevel().sendBlockUpdated(tile.getBlockPos(), state, state, 3);
+        }
+    }
+
+    /**
+     * Called when data is registered or when the flags of registered data are modified.
+     */
+    void invalidatePartitions() {
+        privatePartitions = null;
+        verifiedPartitions = null;
+    }
+
+    /**
+     * @param partition One of the {@link ManagedDataSchema} P_ partition indexes.
+     * @return The indexes of all data matching the partition's flag in index order.
+     */
+    private int[] getPartition(int partition) {
+        if (privatePartitions != null) {
+            return privatePartitions[partition];
+        }
+        ManagedDataSchema.Partitions shared = schema.getPartitions(managedDataList);
+        if (shared != verifiedPartitions) {
+            if (!shared.matches(managedDataList)) {
+                privatePartitions = ManagedDataSchema.buildPartitions(managedDataList);
+                return privatePartitions[partition];
             }
+            verifiedPartitions = shared;
+        }
+        return shared.get(partition);
+    }
+
+    private List<IManagedData> getPartitionData(int partition) {
+        int[] indexes = getPartition(partition);
+        List<IManagedData> list = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            list.add(managedDataList.get(index));
         }
+        return list;
     }
 
     @Override
     public IManagedData getDataByName(String name) {
-        return DataUtils.firstMatch(managedDataList, data -> data.getName().equals(name));
+        int index = schema.indexOf(name);
+        return index >= 0 && index < managedDataList.size() ? managedDataList.get(index) : null;
     }
 
     @Override
     public IManagedData getDataByIndex(int index) {
-        return DataUtils.firstMatch(managedDataList, data -> data.getIndex() == index);
+        return index >= 0 && index < managedDataList.size() ? managedDataList.get(index) : null;
     }
 
     @Override
     public void writeToNBT(CompoundTag compound) {
         CompoundTag dataTag = new CompoundTag();
-        DataUtils.forEachMatch(managedDataList, data -> data.flags().saveNBT, data -> data.toNBT(dataTag));
+        for (int index : getPartition(P_SAVE_NBT)) managedDataList.get(index).toNBT(dataTag);
         compound.put(BlockBCore.BC_MANAGED_DATA_FLAG, dataTag);
     }
 
@@ -183,7 +605,7 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
     public void readFromNBT(CompoundTag compound) {
         if (compound.contains(BlockBCore.BC_MANAGED_DATA_FLAG, 10)) {
             CompoundTag dataTag = compound.getCompound(BlockBCore.BC_MANAGED_DATA_FLAG);
-            DataUtils.forEachMatch(managedDataList, data -> data.flags().saveNBT, data -> data.fromNBT(dataTag));
+            for (int index : getPartition(P_SAVE_NBT)) managedDataList.get(index).fromNBT(dataTag);
         }
     }
 
@@ -197,18 +619,30 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
                 tile.setChanged();
             }
 
-            for (IManagedData data : managedDataList) {
-                if (data.flags().syncOnSet && data.isDirty(true)) {
-                    PacketCustom syncPacket = createSyncPacket();
-                    syncPacket.writeByte((byte) data.getIndex());
-                    data.toBytes(syncPacket);
-                    //TODO, THis may not be the best solution, Issue is client side tile is placed after server side.
-                    DelayedTask.server(1, () -> syncPacket.sendToChunk(tile));
+            pollChanges();
+            List<IManagedData> dirty = pollDirty(dirtySyncOnSet, SYNC_ON_SET);
+            if (dirty != null) {
+                PacketCustom syncPacket = createBatchPacket(dirty, true);
+                //TODO, THis may not be the best solution, Issue is client side tile is placed after server side.
+                DelayedTask.Task task = DelayedTask.scheduleServer(1, () -> syncPacket.sendToChunk(tile));
+                if (pendingTasks.isEmpty()) {
+                    pendingTasks = new ArrayList<>(1);
+                } else {
+                    pendingTasks.removeIf(DelayedTask.Task::isDead);
                 }
+                pendingTasks.add(task);
             }
         }
     }
 
+    /**
+     * Cancels any pending delayed syncs. Called when the tile is removed or unloaded.
+     */
+    public void cancelPendingTasks() {
+        pendingTasks.forEach(DelayedTask.Task::cancel);
+        pendingTasks = Collections.emptyList();
+    }
+
     @Override
     public boolean isClientSide() {
         return tile.hasLevel() && tile.getLevel().isClientSide;
@@ -245,14 +679,14 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
      */
     public void writeSyncNBT(CompoundTag compound) {
         CompoundTag dataTag = new CompoundTag();
-        DataUtils.forEachMatch(managedDataList, data -> data.flags().syncViaPacket(), data -> data.toNBT(dataTag));
+        for (int index : getPartition(P_SYNC_PACKET)) managedDataList.get(index).toNBT(dataTag);
         compound.put(BlockBCore.BC_MANAGED_DATA_FLAG, dataTag);
     }
 
     public void readSyncNBT(CompoundTag compound) {
         if (compound.contains(BlockBCore.BC_MANAGED_DATA_FLAG, 10)) {
             CompoundTag dataTag = compound.getCompound(BlockBCore.BC_MANAGED_DATA_FLAG);
-            DataUtils.forEachMatch(managedDataList, data -> data.flags().syncViaPacket(), data -> data.fromNBT(dataTag));
+            for (int index : getPartition(P_SYNC_PACKET)) managedDataList.get(index).fromNBT(dataTag);
         }
     }
 
@@ -261,7 +695,7 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
      */
     public void writeToStackNBT(CompoundTag compound) {
         CompoundTag dataTag = new CompoundTag();
-        DataUtils.forEachMatch(managedDataList, data -> data.flags().saveItem, data -> data.toNBT(dataTag));
+        for (int index : getPartition(P_SAVE_ITEM)) managedDataList.get(index).toNBT(dataTag);
         if (!dataTag.isEmpty()) {
             compound.put(BlockBCore.BC_MANAGED_DATA_FLAG, dataTag);
         }
@@ -270,7 +704,7 @@ public class TileDataManager<T extends BlockEntity & IDataManagerProvider> imple
     public void readFromStackNBT(CompoundTag compound) {
         if (compound.contains(BlockBCore.BC_MANAGED_DATA_FLAG, 10)) {
             CompoundTag dataTag = compound.getCompound(BlockBCore.BC_MANAGED_DATA_FLAG);
-            DataUtils.forEachMatch(managedDataList, data -> data.flags().saveItem, data -> data.fromNBT(dataTag));
+            for (int index : getPartition(P_SAVE_ITEM)) managedDataList.get(index).fromNBT(dataTag);
         }
     }
 }
@@ -36,10 +36,24 @@ public class MultiBlockDefinition {
     //Position the position of each block relative to origin
     private Map<BlockPos, MultiBlockPart> blockMap = new HashMap<>();
 
+    /**
+     * All 24 axis aligned rotations as row major integer matrices. Index 0 is the identity.
+     */
+    private static final int[][] ROTATIONS = buildRotations();
+
+    /**
+     * The compiled structure. Part indexes refer to {@link #parts}.
+     * Offsets are packed x, y, z relative to origin. One offset array per entry in {@link #ROTATIONS}
+     */
+    private MultiBlockPart[] parts;
+    private int[] partIndexes;
+    private int[][] rotatedOffsets;
+
     public MultiBlockDefinition(ResourceLocation id, JsonElement json) {
         this.id = id;
         this.json = json;
         loadFromJson();
+        compile();
     }
 
     public ResourceLocation getId() {
@@ -56,7 +70,7 @@ public class MultiBlockDefinition {
      * @return The block map for this structure.
      */
     public Map<BlockPos, MultiBlockPart> getBlocks() {
-        return ImmutableMap.copyOf(blockMap);
+        return blockMap;
     }
 
     /**
@@ -66,9 +80,7 @@ public class MultiBlockDefinition {
      * @return The block map.
      */
     public Map<BlockPos, MultiBlockPart> getBlocksAt(BlockPos worldOrigin) {
-        Map<BlockPos, MultiBlockPart> translated = new HashMap<>();
-        blockMap.forEach((pos, part) -> translated.put(worldOrigin.offset(pos), part));
-        return ImmutableMap.copyOf(translated);
+        return buildMap(worldOrigin, rotatedOffsets[0]);
     }
 
     /**
@@ -79,14 +91,7 @@ public class MultiBlockDefinition {
      * @return The block map with the applied rotation.
      */
     public Map<BlockPos, MultiBlockPart> getBlocks(Rotation rotation) {
-        Map<BlockPos, MultiBlockPart> transformed = new HashMap<>();
-        Transformation transform = rotation.at(Vector3.CENTER).inverse();
-        blockMap.forEach((pos, part) -> {
-            Vector3 vec = Vector3.fromBlockPosCenter(pos);
-            vec.apply(transform);
-            transformed.put(vec.pos(), part);
-        });
-        return ImmutableMap.copyOf(transformed);
+        return getBlocksAt(BlockPos.ZERO, rotation);
     }
 
     /**
@@ -96,14 +101,7 @@ public class MultiBlockDefinition {
      * @see #getBlocks(Rotation)
      */
     public Map<BlockPos, MultiBlockPart> getBlocksAt(BlockPos worldOrigin, Rotation rotation) {
-        Map<BlockPos, MultiBlockPart> transformed = new HashMap<>();
-        Transformation transform = rotation.at(Vector3.CENTER).inverse();
-        blockMap.forEach((pos, part) -> {
-            Vector3 vec = Vector3.fromBlockPosCenter(pos);
-            vec.apply(transform);
-            transformed.put(vec.add(worldOrigin).pos(), part);
-        });
-        return ImmutableMap.copyOf(transformed);
+        return buildMap(worldOrigin, getOffsets(rotation));
     }
 
     // Structure validation
@@ -116,11 +114,7 @@ public class MultiBlockDefinition {
      * @return A list containing any blocks that do not match this structure. Empty list means the structure is valid.
      */
     public List<InvalidPart> test(Level level, BlockPos originPos) {
-        List<InvalidPart> result = new ArrayList<>();
-        getBlocksAt(originPos).forEach((pos, part) -> {
-            if (!part.isMatch(level, pos)) result.add(new InvalidPart(pos, part));
-        });
-        return result;
+        return test(level, originPos, rotatedOffsets[0]);
     }
 
     /**
@@ -133,13 +127,146 @@ public class MultiBlockDefinition {
      * @see #getBlocks(Rotation)
      */
     public List<InvalidPart> test(Level level, BlockPos originPos, Rotation rotation) {
+        return test(level, originPos, getOffsets(rotation));
+    }
+
+    /**
+     * Same as {@link #test(Level, BlockPos)} but stops at the first invalid block.
+     * Use this when you only need to know if the structure is valid.
+     *
+     * @return true if the structure is valid.
+     */
+    public boolean isValid(Level level, BlockPos originPos) {
+        return isValid(level, originPos, rotatedOffsets[0]);
+    }
+
+    /**
+     * Same as {@link #test(Level, BlockPos, Rotation)} but stops at the first invalid block.
+     *
+     * @return true if the structure is valid.
+     */
+    public boolean isValid(Level level, BlockPos originPos, Rotation rotation) {
+        return isValid(level, originPos, getOffsets(rotation));
+    }
+
+    private List<InvalidPart> test(Level level, BlockPos originPos, int[] offsets) {
         List<InvalidPart> result = new ArrayList<>();
-        getBlocksAt(originPos, rotation).forEach((pos, part) -> {
-            if (!part.isMatch(level, pos)) result.add(new InvalidPart(pos, part));
-        });
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < partIndexes.length; i++) {
+            int j = i * 3;
+            pos.set(originPos.getX() + offsets[j], originPos.getY() + offsets[j + 1], originPos.getZ() + offsets[j + 2]);
+            MultiBlockPart part = parts[partIndexes[i]];
+            if (!part.isMatch(level, pos)) result.add(new InvalidPart(pos.immutable(), part));
+        }
         return result;
     }
 
+    private boolean isValid(Level level, BlockPos originPos, int[] offsets) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < partIndexes.length; i++) {
+            int j = i * 3;
+            pos.set(originPos.getX() + offsets[j], originPos.getY() + offsets[j + 1], originPos.getZ() + offsets[j + 2]);
+            if (!parts[partIndexes[i]].isMatch(level, pos)) return false;
+        }
+        return true;
+    }
+
+    private Map<BlockPos, MultiBlockPart> buildMap(BlockPos worldOrigin, int[] offsets) {
+        ImmutableMap.Builder<BlockPos, MultiBlockPart> builder = ImmutableMap.builderWithExpectedSize(partIndexes.length);
+        for (int i = 0; i < partIndexes.length; i++) {
+            int j = i * 3;
+            builder.put(new BlockPos(worldOrigin.getX() + offsets[j], worldOrigin.getY() + offsets[j + 1], worldOrigin.getZ() + offsets[j + 2]), parts[partIndexes[i]]);
+        }
+        return builder.build();
+    }
+
+    // Compiled structure
+
+    /**
+     * Finds the precomputed offsets for the given rotation.
+     * The rotation only needs to be applied to the three unit vectors to identify it.
+     * Rotations that are not a multiple of 90 degrees are compiled on the fly using the closest axis aligned result.
+     */
+    private int[] getOffsets(Rotation rotation) {
+        int[] matrix = toMatrix(rotation);
+        for (int i = 0; i < ROTATIONS.length; i++) {
+            if (Arrays.equals(ROTATIONS[i], matrix)) {
+                return rotatedOffsets[i];
+            }
+        }
+        return transform(rotatedOffsets[0], matrix);
+    }
+
+    /**
+     * The structure is rotated about the center of the origin block which, for an axis aligned rotation,
+     * is equivalent to applying the inverse rotation matrix directly to the integer offsets.
+     */
+    private static int[] toMatrix(Rotation rotation) {
+        Transformation inverse = rotation.inverse();
+        int[] matrix = new int[9];
+        for (int axis = 0; axis < 3; axis++) {
+            Vector3 vec = new Vector3(axis == 0 ? 1 : 0, axis == 1 ? 1 : 0, axis == 2 ? 1 : 0);
+            vec.apply(inverse);
+            matrix[axis] = (int) Math.round(vec.x);
+            matrix[3 + axis] = (int) Math.round(vec.y);
+            matrix[6 + axis] = (int) Math.round(vec.z);
+        }
+        return matrix;
+    }
+
+    private static int[] transform(int[] offsets, int[] m) {
+        int[] result = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i += 3) {
+            int x = offsets[i], y = offsets[i + 1], z = offsets[i + 2];
+            result[i] = m[0] * x + m[1] * y + m[2] * z;
+            result[i + 1] = m[3] * x + m[4] * y + m[5] * z;
+            result[i + 2] = m[6] * x + m[7] * y + m[8] * z;
+        }
+        return result;
+    }
+
+    private static int[][] buildRotations() {
+        int[][] perms = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        List<int[]> rotations = new ArrayList<>();
+        for (int[] perm : perms) {
+            for (int signs = 0; signs < 8; signs++) {
+                int[] matrix = new int[9];
+                for (int row = 0; row < 3; row++) {
+                    matrix[row * 3 + perm[row]] = (signs & (1 << row)) == 0 ? 1 : -1;
+                }
+                int det = matrix[0] * (matrix[4] * matrix[8] - matrix[5] * matrix[7])
+                        - matrix[1] * (matrix[3] * matrix[8] - matrix[5] * matrix[6])
+                        + matrix[2] * (matrix[3] * matrix[7] - matrix[4] * matrix[6]);
+                if (det == 1) rotations.add(matrix);
+            }
+        }
+        return rotations.toArray(new int[0][]);
+    }
+
+    private void compile() {
+        Map<MultiBlockPart, Integer> partIds = new IdentityHashMap<>();
+        List<MultiBlockPart> partList = new ArrayList<>();
+        partIndexes = new int[blockMap.size()];
+        int[] offsets = new int[blockMap.size() * 3];
+        int i = 0;
+        for (Map.Entry<BlockPos, MultiBlockPart> entry : blockMap.entrySet()) {
+            BlockPos pos = entry.getKey();
+            partIndexes[i] = partIds.computeIfAbsent(entry.getValue(), e -> {
+                partList.add(e);
+                return partList.size() - 1;
+            });
+            offsets[i * 3] = pos.getX();
+            offsets[i * 3 + 1] = pos.getY();
+            offsets[i * 3 + 2] = pos.getZ();
+            i++;
+        }
+        parts = partList.toArray(new MultiBlockPart[0]);
+        rotatedOffsets = new int[ROTATIONS.length][];
+        for (int r = 0; r < ROTATIONS.length; r++) {
+            rotatedOffsets[r] = r == 0 ? offsets : transform(offsets, ROTATIONS[r]);
+        }
+        blockMap = ImmutableMap.copyOf(blockMap);
+    }
 
     private void loadFromJson() {
         JsonObject obj = json.getAsJsonObject();
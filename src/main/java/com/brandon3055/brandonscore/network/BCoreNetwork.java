@@ -54,6 +54,7 @@ public class BCoreNetwork {
     public static final int C_OPEN_HUD_CONFIG = 13;
     public static final int C_MULTI_BLOCK_DEFINITIONS = 14;
     public static final int C_CONTRIBUTOR_CONFIG = 15;
+    public static final int C_TILE_DATA_BATCH = 16;
     //Client to server
     public static final int S_CONTAINER_MESSAGE = 1;
     public static final int S_PLAYER_ACCESS_BUTTON = 2;
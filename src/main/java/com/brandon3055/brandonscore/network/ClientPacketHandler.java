@@ -16,6 +16,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.core.particles.ParticleType;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.MessageSignature;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundSource;
@@ -38,6 +39,7 @@ public class ClientPacketHandler implements ICustomPacketHandler.IClientPacketHa
                     tile.getDataManager().receiveSyncData(packet);
                 }
             }
+            case BCoreNetwork.C_TILE_DATA_BATCH -> handleTileDataBatch(packet, mc);
             case BCoreNetwork.C_TILE_MESSAGE -> {
                 BlockPos pos = packet.readPos();
                 if (mc.level.getBlockEntity(pos) instanceof TileBCore tile) {
@@ -78,6 +80,21 @@ public class ClientPacketHandler implements ICustomPacketHandler.IClientPacketHa
         }
     }
 
+    private static void handleTileDataBatch(PacketCustom packet, Minecraft mc) {
+        if (mc.level == null) return;
+        FriendlyByteBuf buf = packet.toPacketBuffer();
+        while (buf.isReadable()) {
+            BlockPos pos = packet.readPos();
+            int length = packet.readInt();
+            int end = buf.readerIndex() + length;
+            if (mc.level.getBlockEntity(pos) instanceof IDataManagerProvider tile) {
+                tile.getDataManager().receiveSyncData(packet);
+            }
+            //Ensures we always end up at the start of the next tile even if this tile was missing or could not read all of its data.
+            buf.readerIndex(end);
+        }
+    }
+
     private static void handlePlaySound(PacketCustom packet, Minecraft mc) {
         if (mc.level == null) return;
         BlockPos pos = packet.readPos();
@@ -0,0 +1,110 @@
+package com.brandon3055.brandonscore.network;
+
+import codechicken.lib.packet.PacketCustom;
+import com.brandon3055.brandonscore.lib.datamanager.IManagedData;
+import com.brandon3055.brandonscore.lib.datamanager.TileDataManager;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.covers1624.quack.util.CrashLock;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+
+import java.util.*;
+
+/**
+ * Collects the managed data updates from every {@link TileDataManager} during a server tick
+ * then sends them as a single {@link BCoreNetwork#C_TILE_DATA_BATCH} packet per chunk at the end of the tick.
+ * This means the tracking player list for a chunk is only resolved once per tick no matter how many tiles it contains.
+ * <p>
+ * Packet format: repeated until the end of the packet: [pos][int length][data manager batch]
+ */
+public class TileSyncCoalescer {
+    private static final CrashLock LOCK = new CrashLock("Already Initialized.");
+    /**
+     * If a chunk packet exceeds this size it will be sent and a new packet will be started for the remaining tiles.
+     */
+    private static final int MAX_PACKET_BYTES = 0x100000 / 2;
+
+    private static final Map<Level, Long2ObjectMap<Map<TileDataManager<?>, Set<IManagedData>>>> QUEUE = new HashMap<>();
+
+    public static void init() {
+        LOCK.lock();
+        MinecraftForge.EVENT_BUS.addListener(TileSyncCoalescer::onServerTick);
+        MinecraftForge.EVENT_BUS.addListener(TileSyncCoalescer::onServerStop);
+    }
+
+    /**
+     * Queue data to be sent to all players tracking the tile's chunk at the end of the current tick.
+     * Data is serialized when the queue is flushed so the client will always receive the latest value.
+     */
+    public static void queue(TileDataManager<?> manager, Collection<IManagedData> dataList) {
+        BlockEntity tile = manager.tile;
+        BlockPos pos = tile.getBlockPos();
+        long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        QUEUE.computeIfAbsent(tile.getLevel(), e -> new Long2ObjectLinkedOpenHashMap<>())
+                .computeIfAbsent(chunkKey, e -> new LinkedHashMap<>())
+                .computeIfAbsent(manager, e -> new ReferenceLinkedOpenHashSet<>())
+                .addAll(dataList);
+    }
+
+    private static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            flush();
+        }
+    }
+
+    public static void flush() {
+        if (QUEUE.isEmpty()) return;
+        for (Map.Entry<Level, Long2ObjectMap<Map<TileDataManager<?>, Set<IManagedData>>>> levelEntry : QUEUE.entrySet()) {
+            Level level = levelEntry.getKey();
+            for (Map<TileDataManager<?>, Set<IManagedData>> chunkQueue : levelEntry.getValue().values()) {
+                sendChunk(level, chunkQueue);
+            }
+        }
+        QUEUE.clear();
+    }
+
+    private static void sendChunk(Level level, Map<TileDataManager<?>, Set<IManagedData>> chunkQueue) {
+        PacketCustom packet = null;
+        BlockPos anchor = null;
+        for (Map.Entry<TileDataManager<?>, Set<IManagedData>> entry : chunkQueue.entrySet()) {
+            BlockEntity tile = entry.getKey().tile;
+            if (tile.isRemoved() || tile.getLevel() != level) {
+                continue;
+            }
+
+            if (packet == null) {
+                packet = new PacketCustom(BCoreNetwork.CHANNEL, BCoreNetwork.C_TILE_DATA_BATCH);
+                anchor = tile.getBlockPos();
+            }
+
+            FriendlyByteBuf buf = packet.toPacketBuffer();
+            packet.writePos(tile.getBlockPos());
+            int lengthIndex = buf.writerIndex();
+            packet.writeInt(0);
+            int start = buf.writerIndex();
+            entry.getKey().writeBatch(packet, entry.getValue());
+            buf.setInt(lengthIndex, buf.writerIndex() - start);
+
+            if (buf.writerIndex() >= MAX_PACKET_BYTES) {
+                packet.sendToChunk(level, anchor);
+                packet = null;
+            }
+        }
+
+        if (packet != null) {
+            packet.sendToChunk(level, anchor);
+        }
+    }
+
+    private static void onServerStop(ServerStoppedEvent event) {
+        QUEUE.clear();
+    }
+}
@@ -0,0 +1,37 @@
+package com.brandon3055.brandonscore.worldentity;
+
+/**
+ * A ticking world entity whose tick can be split into a pure computation step that runs on a worker thread
+ * and a commit step that runs on the server thread.
+ * <p>
+ * Each tick (in this entity's {@link #getPhase()}) {@link #tickParallel()} is called for all parallel entities in the level
+ * on a shared fork join pool while the normal ticking entities are ticked on the server thread.
+ * Once all parallel ticks are complete {@link #commit()} is called for each entity on the server thread.
+ * <p>
+ * {@link #tickParallel()} must not access the world, other entities or any other shared mutable state.
+ * It should only read and write state owned by this entity. Any changes to the world must be applied in {@link #commit()}.
+ * The one exception is {@link WorldEntityHandler#onPositionChanged(WorldEntity)}. It is safe to call from {@link #tickParallel()},
+ * and the change is applied once all parallel ticks are complete.
+ */
+public interface IParallelTickingWorldEntity extends ITickableWorldEntity {
+
+    /**
+     * Called on a worker thread. Perform computation here and store the results for {@link #commit()}.
+     */
+    void tickParallel();
+
+    /**
+     * Called on the server thread after {@link #tickParallel()} has completed for every parallel entity in this level.
+     * Apply any changes to the world here.
+     */
+    void commit();
+
+    /**
+     * Not used by the world entity handler. Exists so parallel entities can still be ticked serially by other code.
+     */
+    @Override
+    default void tick() {
+        tickParallel();
+        commit();
+    }
+}
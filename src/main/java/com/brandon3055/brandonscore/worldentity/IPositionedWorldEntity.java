@@ -0,0 +1,25 @@
+package com.brandon3055.brandonscore.worldentity;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * Implemented by world entities that exist at a position in the world.
+ * Positioned entities are indexed by chunk section so they can be found via {@link WorldEntityHandler#getWorldEntitiesInArea}
+ * and, if they are also {@link ITickableWorldEntity}s, they only tick while the chunk they are in is ticking.
+ */
+public interface IPositionedWorldEntity {
+
+    /**
+     * If this value changes the entity must call {@link WorldEntityHandler#onPositionChanged(WorldEntity)}
+     *
+     * @return The current position of this entity.
+     */
+    BlockPos getPosition();
+
+    /**
+     * @return false if this entity should continue to tick while the chunk it is in is not loaded.
+     */
+    default boolean tickOnlyWhenLoaded() {
+        return true;
+    }
+}
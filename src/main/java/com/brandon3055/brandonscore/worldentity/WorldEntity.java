@@ -20,6 +20,7 @@ public abstract class WorldEntity {
     private UUID uniqueID = Mth.createInsecureUUID(this.rand);
     protected Level level;
     protected boolean removed;
+    private boolean dirty = true;
 
     protected WorldEntity(WorldEntityType<?> worldEntityType) {
         this.worldEntityType = worldEntityType;
@@ -52,6 +53,32 @@ public abstract class WorldEntity {
         WorldEntityHandler.onEntityRemove(this);
     }
 
+    /**
+     * Marks this entity as needing to be saved. Only has an effect if {@link #tracksChanges()} returns true.
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Entities that return true must call {@link #markDirty()} whenever their saved data changes.
+     * This allows the entity to be skipped when the world is saved if nothing has changed.
+     * Entities that return false are saved every time the world is saved.
+     */
+    protected boolean tracksChanges() {
+        return false;
+    }
+
+    boolean checkAndClearDirty() {
+        boolean wasDirty = dirty || !tracksChanges();
+        dirty = false;
+        return wasDirty;
+    }
+
+    void clearDirty() {
+        dirty = false;
+    }
+
     public void read(CompoundTag nbt) {
         readInternal(nbt);
     }
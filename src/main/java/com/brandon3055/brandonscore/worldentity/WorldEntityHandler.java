@@ -2,14 +2,28 @@ package com.brandon3055.brandonscore.worldentity;
 
 import com.brandon3055.brandonscore.utils.LogHelperBC;
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.covers1624.quack.util.CrashLock;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
+import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraft.world.phys.AABB;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
 import net.minecraftforge.event.level.LevelEvent;
 import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -20,7 +34,10 @@ import net.minecraftforge.registries.RegistryBuilder;
 
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import static com.brandon3055.brandonscore.BrandonsCore.MODID;
 
@@ -33,9 +50,16 @@ public class WorldEntityHandler {
     public static final ResourceKey<Registry<WorldEntityType<?>>> ENTITY_TYPE = ResourceKey.createRegistryKey(new ResourceLocation(MODID, "world_entity"));
     public static IForgeRegistry<WorldEntityType<?>> REGISTRY;
     private static final Map<UUID, WorldEntity> ID_ENTITY_MAP = new HashMap<>();
-    private static final Map<ResourceKey<Level>, List<WorldEntity>> WORLD_ENTITY_MAP = new HashMap<>();
-    private static final Map<ResourceKey<Level>, List<ITickableWorldEntity>> TICKING_ENTITY_MAP = new HashMap<>();
-    private static final Map<ResourceKey<Level>, List<WorldEntity>> ADDED_WORLD_ENTITIES = new HashMap<>();
+    private static final Map<ResourceKey<Level>, LevelEntities> LEVEL_ENTITIES = new HashMap<>();
+    private static final Map<ResourceKey<Level>, WorldEntitySaveData> SAVE_DATA = new HashMap<>();
+    /**
+     * How often each level is checked for entities that were flagged as removed without calling {@link WorldEntity#removeEntity()}
+     */
+    private static final int REMOVED_SWEEP_INTERVAL = 20;
+    /**
+     * Runs {@link IParallelTickingWorldEntity#tickParallel()}. Created the first time it is needed.
+     */
+    private static ForkJoinPool parallelPool = null;
 
     public static void createRegistry(NewRegistryEvent event) {
         event.create(new RegistryBuilder<WorldEntityType<?>>()
@@ -54,6 +78,8 @@ public class WorldEntityHandler {
         MinecraftForge.EVENT_BUS.addListener(WorldEntityHandler::worldUnload);
         MinecraftForge.EVENT_BUS.addListener(WorldEntityHandler::onServerStop);
         MinecraftForge.EVENT_BUS.addListener(WorldEntityHandler::worldTick);
+        MinecraftForge.EVENT_BUS.addListener(WorldEntityHandler::chunkLoad);
+        MinecraftForge.EVENT_BUS.addListener(WorldEntityHandler::chunkUnload);
     }
 
     public static void worldLoad(LevelEvent.Load event) {
@@ -62,134 +88,431 @@ public class WorldEntityHandler {
         ResourceKey<Level> key = world.dimension();
 
         //If the world was unloaded properly then this should always be null. But better safe
-        List<WorldEntity> oldEntities = WORLD_ENTITY_MAP.remove(key);
-        TICKING_ENTITY_MAP.remove(key);
+        LevelEntities oldEntities = LEVEL_ENTITIES.remove(key);
         if (oldEntities != null) {
             LogHelperBC.warn("Detected stray world entities for world " + key.toString() + ". These should have been removed when the world unloaded.");
-            oldEntities.forEach(e -> ID_ENTITY_MAP.remove(e.getUniqueID()));
-            WORLD_ENTITY_MAP.remove(key);
+            oldEntities.forgetIds();
         }
 
         WorldEntitySaveData data = world.getDataStorage().computeIfAbsent(WorldEntitySaveData::load,WorldEntitySaveData::new, WorldEntitySaveData.FILE_ID);
         data.setSaveCallback(() -> handleSave(data, key));
+        data.loadEntities(DimensionType.getStorageFolder(key, world.getServer().getWorldPath(LevelResource.ROOT)).resolve("data").resolve(WorldEntitySaveData.FILE_ID));
+        SAVE_DATA.put(key, data);
         for (WorldEntity entity : data.getEntities()) {
             addWorldEntity(world, entity);
         }
     }
 
     private static void handleSave(WorldEntitySaveData data, ResourceKey<Level> key) {
-        List<WorldEntity> worldEntities = WORLD_ENTITY_MAP.get(key);
-        data.updateEntities(worldEntities);
+        LevelEntities entities = LEVEL_ENTITIES.get(key);
+        data.updateEntities(entities == null ? null : entities.entities);
     }
 
     public static void worldUnload(LevelEvent.Unload event) {
         if (!(event.getLevel() instanceof ServerLevel)) return;
         ServerLevel world = (ServerLevel) event.getLevel();
-        ResourceKey<Level> key = world.dimension();
-        TICKING_ENTITY_MAP.remove(key);
-        List<WorldEntity> removed = WORLD_ENTITY_MAP.get(key);
+        LevelEntities removed = LEVEL_ENTITIES.remove(world.dimension());
         if (removed != null) {
-            removed.forEach(e -> ID_ENTITY_MAP.remove(e.getUniqueID()));
+            removed.forgetIds();
+        }
+        WorldEntitySaveData data = SAVE_DATA.remove(world.dimension());
+        if (data != null) {
+            data.flush();
         }
     }
 
     public static void onServerStop(ServerStoppedEvent event) {
-        WORLD_ENTITY_MAP.clear();
-        TICKING_ENTITY_MAP.clear();
+        if (parallelPool != null) {
+            parallelPool.shutdown();
+            parallelPool = null;
+        }
+        SAVE_DATA.values().forEach(WorldEntitySaveData::flush);
+        SAVE_DATA.clear();
+        LEVEL_ENTITIES.clear();
         ID_ENTITY_MAP.clear();
     }
 
     public static void worldTick(TickEvent.LevelTickEvent event) {
         if (!(event.level instanceof ServerLevel)) return;
         Level world = event.level;
-        ResourceKey<Level> key = world.dimension();
+        LevelEntities entities = LEVEL_ENTITIES.get(world.dimension());
+        if (entities == null) return;
 
         //Clear dead entities
-        ID_ENTITY_MAP.entrySet().removeIf(entry -> {
-            WorldEntity entity = entry.getValue();
-            if (entity.isRemoved()) {
-                ResourceKey<Level> removeKey = entity.level.dimension();
-                if (WORLD_ENTITY_MAP.containsKey(removeKey)) {
-                    WORLD_ENTITY_MAP.get(removeKey).remove(entity);
-                }
-                if (entity instanceof ITickableWorldEntity && TICKING_ENTITY_MAP.containsKey(removeKey)) {
-                    TICKING_ENTITY_MAP.get(removeKey).remove(entity);
+        entities.reapRemoved();
+        if (event.phase == TickEvent.Phase.START && world.getGameTime() % REMOVED_SWEEP_INTERVAL == 0) {
+            entities.sweepRemoved();
+        }
+
+        //Tick Tickable Entities
+        entities.iterating = true;
+        List<IParallelTickingWorldEntity> batch = entities.parallelBatch;
+        ForkJoinTask<?> parallelTask = null;
+        try {
+            Iterator<ITickableWorldEntity> iterator = entities.getTicking(event.phase, true).iterator();
+            while (iterator.hasNext()) {
+                ITickableWorldEntity entity = iterator.next();
+                if (shouldTick(world, entity, iterator)) {
+                    batch.add((IParallelTickingWorldEntity) entity);
                 }
-                return true;
             }
-            return false;
-        });
+            //Parallel entities run on the worker pool while the normal entities tick on this thread
+            parallelTask = batch.isEmpty() ? null : getParallelPool().submit(() -> batch.parallelStream().forEach(IParallelTickingWorldEntity::tickParallel));
 
-        //Tick Tickable Entities
-        if (TICKING_ENTITY_MAP.containsKey(key)) {
-            TICKING_ENTITY_MAP.get(key).forEach(e -> {
-                if (e.getPhase() == event.phase) {
-                    e.tick();
+            iterator = entities.getTicking(event.phase, false).iterator();
+            while (iterator.hasNext()) {
+                ITickableWorldEntity entity = iterator.next();
+                if (shouldTick(world, entity, iterator)) {
+                    entity.tick();
                 }
-            });
-        }
+            }
 
-        //Add New Entities
-        if (event.phase == TickEvent.Phase.END && ADDED_WORLD_ENTITIES.containsKey(key)) {
-            List<WorldEntity> newEntities = ADDED_WORLD_ENTITIES.get(key);
-            if (!newEntities.isEmpty()) {
-                List<WorldEntity> worldEntities = WORLD_ENTITY_MAP.computeIfAbsent(key, e -> new ArrayList<>());
-                List<ITickableWorldEntity> worldTickingEntities = TICKING_ENTITY_MAP.computeIfAbsent(key, e -> new ArrayList<>());
-                for (WorldEntity entity : newEntities) {
-                    if (entity.isRemoved()) {
-                        worldEntities.remove(entity);
-                        if (entity instanceof ITickableWorldEntity) {
-                            worldTickingEntities.remove(entity);
-                        }
-                        continue;
+            if (parallelTask != null) {
+                parallelTask.join();
+                for (IParallelTickingWorldEntity entity : batch) {
+                    if (!((WorldEntity) entity).isRemoved()) {
+                        entity.commit();
                     }
-                    ID_ENTITY_MAP.put(entity.getUniqueID(), entity);
-                    if (!worldEntities.contains(entity)) {
-                        worldEntities.add(entity);
-                    }
-                    if (entity instanceof ITickableWorldEntity && !worldTickingEntities.contains(entity)) {
-                        worldTickingEntities.add((ITickableWorldEntity) entity);
-                    }
-                    if (entity.getLevel() != world) {
-                        entity.setLevel(world);
-                    }
-                    entity.onLoad();
                 }
             }
-            ADDED_WORLD_ENTITIES.remove(key);
+        } finally {
+            //The workers must be finished with the batch before it is cleared, even if a serial entity threw.
+            if (parallelTask != null) {
+                parallelTask.quietlyJoin();
+            }
+            batch.clear();
+            WorldEntity moved;
+            while ((moved = entities.parallelPositionChanges.poll()) != null) {
+                if (entities.entities.contains(moved)) {
+                    entities.requestActivationUpdate(moved);
+                }
+            }
+            entities.iterating = false;
+        }
+        entities.applyActivationUpdates(world);
+
+        //Add New Entities
+        if (event.phase == TickEvent.Phase.END && !entities.pending.isEmpty()) {
+            entities.addPending(world);
+        }
+    }
+
+    private static boolean shouldTick(Level world, ITickableWorldEntity entity, Iterator<ITickableWorldEntity> iterator) {
+        if (((WorldEntity) entity).isRemoved()) {
+            iterator.remove();
+            return false;
+        }
+        //Loaded but not ticking. e.g. border chunks
+        return !(entity instanceof IPositionedWorldEntity positioned) || !positioned.tickOnlyWhenLoaded() || world.shouldTickBlocksAt(positioned.getPosition());
+    }
+
+    private static ForkJoinPool getParallelPool() {
+        if (parallelPool == null) {
+            ClassLoader classLoader = WorldEntityHandler.class.getClassLoader();
+            parallelPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("BC World Entity Worker-" + thread.getPoolIndex());
+                //Worker threads must be able to load mod classes
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }, null, false);
+        }
+        return parallelPool;
+    }
+
+    public static void chunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            LevelEntities entities = LEVEL_ENTITIES.get(level.dimension());
+            if (entities != null) entities.onChunkChanged(level, event.getChunk().getPos(), true);
+        }
+    }
+
+    public static void chunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            LevelEntities entities = LEVEL_ENTITIES.get(level.dimension());
+            if (entities != null) entities.onChunkChanged(level, event.getChunk().getPos(), false);
         }
     }
 
     public static void addWorldEntity(Level world, WorldEntity entity) {
         if (!(world instanceof ServerLevel)) return;
         ResourceKey<Level> key = world.dimension();
-        ADDED_WORLD_ENTITIES.computeIfAbsent(key, e -> new ArrayList<>()).add(entity);
+        LEVEL_ENTITIES.computeIfAbsent(key, e -> new LevelEntities()).pending.add(entity);
+        ID_ENTITY_MAP.put(entity.getUniqueID(), entity);
         entity.setLevel(world);
     }
 
+    /**
+     * @return The entity with the given id. This includes entities that have been added but not yet loaded.
+     */
     @Nullable
     public static WorldEntity getWorldEntity(Level world, UUID id) {
-        WorldEntity entity = ID_ENTITY_MAP.get(id);
-        if (entity == null && ADDED_WORLD_ENTITIES.containsKey(world.dimension())) {
-            entity = ADDED_WORLD_ENTITIES.get(world.dimension()).stream().filter(e -> e.getUniqueID().equals(id)).findAny().orElse(null);
-        }
-        return entity;
+        return ID_ENTITY_MAP.get(id);
     }
 
     public static List<WorldEntity> getWorldEntities() {
-        if (ADDED_WORLD_ENTITIES.isEmpty()) {
-            return ImmutableList.copyOf(ID_ENTITY_MAP.values());
+        return ImmutableList.copyOf(ID_ENTITY_MAP.values());
+    }
+
+    /**
+     * Finds all positioned world entities within the given area.
+     * Only includes entities that implement {@link IPositionedWorldEntity} and have been added to the world. (Entities added this tick are not included)
+     *
+     * @param world The level to search.
+     * @param area  The area to search. An entity is within the area if the center of its block position is inside the area.
+     * @return A new list containing the entities found.
+     */
+    public static List<WorldEntity> getWorldEntitiesInArea(Level world, AABB area) {
+        LevelEntities entities = LEVEL_ENTITIES.get(world.dimension());
+        if (entities == null) return Collections.emptyList();
+        return entities.getInArea(area);
+    }
+
+    /**
+     * Must be called by {@link IPositionedWorldEntity}s when their position changes so they can be re-indexed.
+     * May be called from {@link IParallelTickingWorldEntity#tickParallel()}, in which case the change is queued
+     * and applied on the server thread once all parallel ticks are complete.
+     */
+    public static void onPositionChanged(WorldEntity entity) {
+        Level world = entity.getLevel();
+        if (world == null) return;
+        LevelEntities entities = LEVEL_ENTITIES.get(world.dimension());
+        if (entities == null) return;
+        if (world.getServer() != null && !world.getServer().isSameThread()) {
+            entities.parallelPositionChanges.add(entity);
+        } else if (entities.entities.contains(entity)) {
+            entities.requestActivationUpdate(entity);
         }
-        Set<WorldEntity> set = new HashSet<>();
-        set.addAll(ID_ENTITY_MAP.values());
-        set.addAll(ADDED_WORLD_ENTITIES.values().stream().flatMap(Collection::stream).collect(Collectors.toSet()));
-        return ImmutableList.copyOf(set);
     }
 
     protected static void onEntityRemove(WorldEntity entity) {
-        ResourceKey<Level> key = entity.getLevel().dimension();
-        if (ADDED_WORLD_ENTITIES.containsKey(key)) {
-            ADDED_WORLD_ENTITIES.get(key).remove(entity);
+        if (entity.getLevel() == null) return;
+        LevelEntities entities = LEVEL_ENTITIES.get(entity.getLevel().dimension());
+        if (entities != null) {
+            entities.removeQueue.add(entity);
+        }
+    }
+
+    /**
+     * The world entities for a single level.
+     * Uses insertion ordered identity sets so add, remove and contains are all constant time and iteration order is stable.
+     * Ticking entities are split by {@link ITickableWorldEntity#getPhase()} which is only checked when the entity is added,
+     * and by whether they are {@link IParallelTickingWorldEntity}s.
+     * <p>
+     * {@link IPositionedWorldEntity}s are also indexed by chunk section. Positioned ticking entities in unloaded chunks are moved
+     * to the dormant set so they cost nothing until their chunk loads again.
+     */
+    private static class LevelEntities {
+        private final Set<WorldEntity> entities = new ReferenceLinkedOpenHashSet<>();
+        private final Set<ITickableWorldEntity> tickStart = new ReferenceLinkedOpenHashSet<>();
+        private final Set<ITickableWorldEntity> tickEnd = new ReferenceLinkedOpenHashSet<>();
+        private final Set<ITickableWorldEntity> parallelStart = new ReferenceLinkedOpenHashSet<>();
+        private final Set<ITickableWorldEntity> parallelEnd = new ReferenceLinkedOpenHashSet<>();
+        private final List<IParallelTickingWorldEntity> parallelBatch = new ArrayList<>();
+        private final Set<WorldEntity> pending = new ReferenceLinkedOpenHashSet<>();
+        private final List<WorldEntity> removeQueue = new ArrayList<>();
+        private final Long2ObjectMap<List<WorldEntity>> sections = new Long2ObjectOpenHashMap<>();
+        private final Reference2LongMap<WorldEntity> entitySections = new Reference2LongOpenHashMap<>();
+        private final Set<ITickableWorldEntity> dormant = new ReferenceOpenHashSet<>();
+        /**
+         * Changes to the ticking sets are deferred while they are being iterated.
+         */
+        private final Set<WorldEntity> activationQueue = new ReferenceLinkedOpenHashSet<>();
+        /**
+         * Position changes reported from worker threads during parallel ticking. Drained on the server thread once the parallel ticks are complete.
+         */
+        private final Queue<WorldEntity> parallelPositionChanges = new ConcurrentLinkedQueue<>();
+        private boolean iterating = false;
+
+        private Set<ITickableWorldEntity> getTicking(TickEvent.Phase phase, boolean parallel) {
+            if (parallel) {
+                return phase == TickEvent.Phase.START ? parallelStart : parallelEnd;
+            }
+            return phase == TickEvent.Phase.START ? tickStart : tickEnd;
+        }
+
+        private Set<ITickableWorldEntity> getTicking(ITickableWorldEntity entity) {
+            return getTicking(entity.getPhase(), entity instanceof IParallelTickingWorldEntity);
+        }
+
+        private void removeTicking(ITickableWorldEntity entity) {
+            tickStart.remove(entity);
+            tickEnd.remove(entity);
+            parallelStart.remove(entity);
+            parallelEnd.remove(entity);
+        }
+
+        private void addPending(Level world) {
+            //Copy because onLoad may add more entities
+            List<WorldEntity> newEntities = new ArrayList<>(pending);
+            pending.clear();
+            for (WorldEntity entity : newEntities) {
+                if (entity.isRemoved()) {
+                    remove(entity);
+                    continue;
+                }
+                ID_ENTITY_MAP.put(entity.getUniqueID(), entity);
+                entities.add(entity);
+                if (entity instanceof ITickableWorldEntity tickable) {
+                    getTicking(tickable).add(tickable);
+                }
+                if (entity.getLevel() != world) {
+                    entity.setLevel(world);
+                }
+                if (entity instanceof IPositionedWorldEntity) {
+                    updatePosition(world, entity);
+                }
+                entity.onLoad();
+            }
+        }
+
+        private void reapRemoved() {
+            if (removeQueue.isEmpty()) return;
+            for (WorldEntity entity : removeQueue) {
+                remove(entity);
+            }
+            removeQueue.clear();
+        }
+
+        private void sweepRemoved() {
+            Iterator<WorldEntity> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                WorldEntity entity = iterator.next();
+                if (entity.isRemoved()) {
+                    iterator.remove();
+                    removeQueue.add(entity);
+                }
+            }
+            reapRemoved();
+        }
+
+        private void requestActivationUpdate(WorldEntity entity) {
+            if (iterating) {
+                activationQueue.add(entity);
+            } else {
+                updatePosition(entity.getLevel(), entity);
+            }
+        }
+
+        private void applyActivationUpdates(Level world) {
+            if (activationQueue.isEmpty()) return;
+            for (WorldEntity entity : activationQueue) {
+                if (entities.contains(entity)) {
+                    updatePosition(world, entity);
+                }
+            }
+            activationQueue.clear();
+        }
+
+        /**
+         * Re-indexes a positioned entity and moves it between the ticking and dormant sets if needed.
+         */
+        private void updatePosition(Level world, WorldEntity entity) {
+            if (!(entity instanceof IPositionedWorldEntity positioned)) return;
+            BlockPos pos = positioned.getPosition();
+            long section = SectionPos.asLong(pos);
+            if (!entitySections.containsKey(entity) || entitySections.getLong(entity) != section) {
+                unindex(entity);
+                sections.computeIfAbsent(section, e -> new ArrayList<>()).add(entity);
+                entitySections.put(entity, section);
+            }
+
+            if (entity instanceof ITickableWorldEntity tickable) {
+                setActive(tickable, !positioned.tickOnlyWhenLoaded() || ((ServerLevel) world).getChunkSource().hasChunk(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+            }
+        }
+
+        private void setActive(ITickableWorldEntity tickable, boolean active) {
+            if (active) {
+                dormant.remove(tickable);
+                getTicking(tickable).add(tickable);
+            } else {
+                removeTicking(tickable);
+                dormant.add(tickable);
+            }
+        }
+
+        private void onChunkChanged(ServerLevel world, ChunkPos pos, boolean loaded) {
+            for (int y = world.getMinSection(); y < world.getMaxSection(); y++) {
+                List<WorldEntity> list = sections.get(SectionPos.asLong(pos.x, y, pos.z));
+                if (list == null) continue;
+                for (WorldEntity entity : list) {
+                    if (!(entity instanceof ITickableWorldEntity tickable) || !((IPositionedWorldEntity) entity).tickOnlyWhenLoaded()) continue;
+                    if (iterating) {
+                        activationQueue.add(entity);
+                    } else {
+                        setActive(tickable, loaded);
+                    }
+                }
+            }
+        }
+
+        private void unindex(WorldEntity entity) {
+            if (!entitySections.containsKey(entity)) return;
+            long section = entitySections.removeLong(entity);
+            List<WorldEntity> list = sections.get(section);
+            if (list != null) {
+                list.remove(entity);
+                if (list.isEmpty()) sections.remove(section);
+            }
+        }
+
+        private List<WorldEntity> getInArea(AABB area) {
+            List<WorldEntity> found = new ArrayList<>();
+            int minX = SectionPos.blockToSectionCoord(Mth.floor(area.minX));
+            int minY = SectionPos.blockToSectionCoord(Mth.floor(area.minY));
+            int minZ = SectionPos.blockToSectionCoord(Mth.floor(area.minZ));
+            int maxX = SectionPos.blockToSectionCoord(Mth.floor(area.maxX));
+            int maxY = SectionPos.blockToSectionCoord(Mth.floor(area.maxY));
+            int maxZ = SectionPos.blockToSectionCoord(Mth.floor(area.maxZ));
+            long sectionCount = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+            if (sectionCount > sections.size()) {
+                //Large area, cheaper to check every occupied section.
+                for (Long2ObjectMap.Entry<List<WorldEntity>> entry : sections.long2ObjectEntrySet()) {
+                    long section = entry.getLongKey();
+                    int x = SectionPos.x(section), y = SectionPos.y(section), z = SectionPos.z(section);
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                        collectInArea(entry.getValue(), area, found);
+                    }
+                }
+            } else {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            List<WorldEntity> list = sections.get(SectionPos.asLong(x, y, z));
+                            if (list != null) collectInArea(list, area, found);
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        private static void collectInArea(List<WorldEntity> list, AABB area, List<WorldEntity> found) {
+            for (WorldEntity entity : list) {
+                BlockPos pos = ((IPositionedWorldEntity) entity).getPosition();
+                if (!entity.isRemoved() && area.contains(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5)) {
+                    found.add(entity);
+                }
+            }
+        }
+
+        private void remove(WorldEntity entity) {
+            entities.remove(entity);
+            pending.remove(entity);
+            unindex(entity);
+            activationQueue.remove(entity);
+            if (entity instanceof ITickableWorldEntity tickable) {
+                removeTicking(tickable);
+                dormant.remove(tickable);
+            }
+            ID_ENTITY_MAP.remove(entity.getUniqueID(), entity);
+        }
+
+        private void forgetIds() {
+            entities.forEach(e -> ID_ENTITY_MAP.remove(e.getUniqueID(), e));
+            pending.forEach(e -> ID_ENTITY_MAP.remove(e.getUniqueID(), e));
         }
     }
 }
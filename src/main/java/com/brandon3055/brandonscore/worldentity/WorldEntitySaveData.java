@@ -1,23 +1,66 @@
 package com.brandon3055.brandonscore.worldentity;
 
+import com.brandon3055.brandonscore.utils.LogHelperBC;
+import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.Tag;
 import net.minecraft.world.level.saveddata.SavedData;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Created by brandon3055 on 16/12/20
+ * <p>
+ * Each world entity is saved to its own file in a directory next to the main data file.
+ * Only entities that have changed since they were last written are written, and files for entities that no longer exist are deleted.
+ * Entities that track their own changes (See {@link WorldEntity#tracksChanges()}) are only serialized when dirty.
+ * Other entities are serialized every save but only written if the result differs from what was last written.
+ * <p>
+ * Entities are serialized on the server thread and the resulting snapshots are written on the IO pool.
+ * Writes are applied in order and {@link #flush()} blocks until all pending writes are complete.
+ * Any write or delete that fails is retried on the next save.
+ * <p>
+ * Older saves that store all entities in the main file are still loaded. Those entities are moved to individual files on the next save.
+ * The legacy list is only removed from the main file once every entity has been written successfully.
  */
 public class WorldEntitySaveData extends SavedData {
     public static final String FILE_ID = "brandonscore_world_entity";
+    private static final int FORMAT_VERSION = 2;
+
     private List<WorldEntity> entities = new ArrayList<>();
     private Runnable saveCallback;
+    private Path entityDirectory;
+    /**
+     * Ids of all entities that have been submitted for writing and not deleted.
+     */
+    private final Set<UUID> savedIds = new HashSet<>();
+    /**
+     * The last tag submitted for each entity that does not track its own changes.
+     */
+    private final Map<UUID, CompoundTag> writtenTags = new HashMap<>();
+    /**
+     * Filled by the IO thread. Drained at the start of each save so the failed operations are retried.
+     */
+    private final Set<UUID> failedWrites = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> failedDeletes = ConcurrentHashMap.newKeySet();
+    private boolean legacyFormat = false;
+    private CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
 
-    public void updateEntities(List<WorldEntity> entities) {
+    /**
+     * Sets the current set of entities for this level. Called via the save callback immediately before saving.
+     */
+    public void updateEntities(Collection<WorldEntity> entities) {
         this.entities.clear();
         if (entities != null){
             this.entities.addAll(entities);
@@ -32,31 +75,185 @@ public class WorldEntitySaveData extends SavedData {
         return entities;
     }
 
+    /**
+     * Loads all entities from the given directory. Must be called before {@link #getEntities()}
+     * If an entity was also loaded from the legacy list in the main file, the copy in the entity directory replaces it.
+     *
+     * @param entityDirectory The directory entity files are stored in. This is usually data/brandonscore_world_entity in the level folder.
+     */
+    public void loadEntities(Path entityDirectory) {
+        if (this.entityDirectory != null) return;
+        this.entityDirectory = entityDirectory;
+        if (!Files.isDirectory(entityDirectory)) return;
+
+        Map<UUID, WorldEntity> loaded = new LinkedHashMap<>();
+        entities.forEach(e -> loaded.put(e.getUniqueID(), e));
+        try (Stream<Path> files = Files.list(entityDirectory)) {
+            files.filter(e -> e.getFileName().toString().endsWith(".dat")).forEach(file -> {
+                try {
+                    CompoundTag tag = NbtIo.readCompressed(file.toFile());
+                    WorldEntity entity = WorldEntity.readWorldEntity(tag);
+                    if (entity != null) {
+                        loaded.put(entity.getUniqueID(), entity);
+                        savedIds.add(entity.getUniqueID());
+                        entity.clearDirty();
+                        if (!entity.tracksChanges()) {
+                            writtenTags.put(entity.getUniqueID(), tag);
+                        }
+                    }
+                } catch (IOException e) {
+                    LogHelperBC.errorError("Failed to read world entity file %s", e, file);
+                }
+            });
+        } catch (IOException e) {
+            LogHelperBC.errorError("Failed to list world entity directory %s", e, entityDirectory);
+        }
+        entities.clear();
+        entities.addAll(loaded.values());
+    }
+
     public static WorldEntitySaveData load(CompoundTag nbt) {
         WorldEntitySaveData data = new WorldEntitySaveData();
-        ListTag list = nbt.getList("entities", 10);
-        for (Tag inbt : list) {
-            data.entities.add(WorldEntity.readWorldEntity((CompoundTag) inbt));
+        if (nbt.contains("entities", Tag.TAG_LIST)) {
+            data.legacyFormat = true;
+            ListTag list = nbt.getList("entities", 10);
+            for (Tag inbt : list) {
+                WorldEntity entity = WorldEntity.readWorldEntity((CompoundTag) inbt);
+                if (entity != null) {
+                    data.entities.add(entity);
+                }
+            }
         }
         return data;
     }
 
     @Override
     public CompoundTag save(CompoundTag compound) {
-        ListTag list = new ListTag();
-        for (WorldEntity entity : entities) {
-            CompoundTag entityTag = new CompoundTag();
-            entity.write(entityTag);
-            list.add(entityTag);
-        }
-        compound.put("entities", list);
+        compound.putInt("version", FORMAT_VERSION);
         return compound;
     }
 
     @Override
     public void save(File fileIn) {
-        setDirty(true);
         saveCallback.run();
-        super.save(fileIn);
+        if (entityDirectory == null) {
+            entityDirectory = fileIn.toPath().resolveSibling(FILE_ID);
+        }
+
+        //Retry anything that failed last time
+        Set<UUID> retry = new HashSet<>(failedWrites);
+        failedWrites.removeAll(retry);
+        retry.forEach(writtenTags::remove);
+        Set<UUID> retryDeletes = new HashSet<>(failedDeletes);
+        failedDeletes.removeAll(retryDeletes);
+        savedIds.addAll(retryDeletes);
+
+        Map<UUID, CompoundTag> writes = new HashMap<>();
+        Set<UUID> current = new HashSet<>();
+        for (WorldEntity entity : entities) {
+            UUID id = entity.getUniqueID();
+            current.add(id);
+            boolean tracksChanges = entity.tracksChanges();
+            boolean dirty = entity.checkAndClearDirty();
+            if (tracksChanges && !dirty && savedIds.contains(id) && !retry.contains(id)) {
+                continue;
+            }
+
+            CompoundTag entityTag = new CompoundTag();
+            entity.write(entityTag);
+            if (!tracksChanges) {
+                if (entityTag.equals(writtenTags.get(id)) && savedIds.contains(id)) {
+                    continue;
+                }
+                writtenTags.put(id, entityTag);
+            }
+            writes.put(id, entityTag);
+            savedIds.add(id);
+        }
+
+        List<UUID> deletes = new ArrayList<>();
+        for (UUID id : savedIds) {
+            if (!current.contains(id)) {
+                deletes.add(id);
+            }
+        }
+        deletes.forEach(savedIds::remove);
+        deletes.forEach(writtenTags::remove);
+
+        if (!writes.isEmpty() || !deletes.isEmpty()) {
+            Path directory = entityDirectory;
+            pendingWrite = pendingWrite
+                    .exceptionally(e -> null)
+                    .thenRunAsync(() -> {
+                        try {
+                            writeEntities(directory, writes, deletes);
+                        } catch (Throwable e) {
+                            LogHelperBC.errorError("Unexpected error while saving world entities to %s", e, directory);
+                            failedWrites.addAll(writes.keySet());
+                            failedDeletes.addAll(deletes);
+                        }
+                    }, Util.ioPool());
+        }
+
+        //Replaces the legacy entity list in the main file. Otherwise the main file never changes.
+        if (legacyFormat || !fileIn.exists()) {
+            if (legacyFormat) {
+                //Entities must be safely in their own files before the legacy list is removed.
+                flush();
+                if (!failedWrites.isEmpty()) {
+                    LogHelperBC.warn("Some world entities could not be written to their own files. The legacy world entity data will be kept until they are.");
+                    return;
+                }
+                legacyFormat = false;
+            }
+            setDirty(true);
+            super.save(fileIn);
+        }
+    }
+
+    /**
+     * Blocks until all pending entity writes have completed.
+     */
+    public void flush() {
+        pendingWrite.exceptionally(e -> null).join();
+    }
+
+    /**
+     * Any write or delete that fails is added to the failed sets so it can be retried.
+     */
+    private void writeEntities(Path directory, Map<UUID, CompoundTag> writes, List<UUID> deletes) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LogHelperBC.errorError("Failed to create world entity directory %s", e, directory);
+            failedWrites.addAll(writes.keySet());
+            failedDeletes.addAll(deletes);
+            return;
+        }
+
+        writes.forEach((id, tag) -> {
+            Path file = directory.resolve(id + ".dat");
+            Path temp = directory.resolve(id + ".dat.tmp");
+            try {
+                NbtIo.writeCompressed(tag, temp.toFile());
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ignored) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                LogHelperBC.errorError("Failed to save world entity %s", e, file);
+                failedWrites.add(id);
+            }
+        });
+
+        for (UUID id : deletes) {
+            try {
+                Files.deleteIfExists(directory.resolve(id + ".dat"));
+            } catch (IOException e) {
+                LogHelperBC.errorError("Failed to delete world entity file for %s", e, id);
+                failedDeletes.add(id);
+            }
+        }
     }
 }